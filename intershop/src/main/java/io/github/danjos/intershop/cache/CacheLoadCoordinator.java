@@ -0,0 +1,85 @@
+package io.github.danjos.intershop.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Makes sure only one loader per cache key hits the database at a time.
+ * Loads are always coalesced within the JVM; with the distributed mode enabled,
+ * nodes also take a short Redis lock and the losers wait for the winner to fill the cache.
+ */
+@Component
+@Slf4j
+public class CacheLoadCoordinator {
+    private static final String LOCK_PREFIX = "lock:";
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final boolean distributed;
+    private final Duration lockTtl;
+    private final Duration waitInterval;
+    private final int waitAttempts;
+
+    public CacheLoadCoordinator(
+            ReactiveRedisTemplate<String, Object> redisTemplate,
+            @Value("${intershop.cache.load-lock.distributed:false}") boolean distributed,
+            @Value("${intershop.cache.load-lock.ttl:5s}") Duration lockTtl,
+            @Value("${intershop.cache.load-lock.wait-interval:50ms}") Duration waitInterval,
+            @Value("${intershop.cache.load-lock.wait-attempts:20}") int waitAttempts) {
+        this.redisTemplate = redisTemplate;
+        this.distributed = distributed;
+        this.lockTtl = lockTtl;
+        this.waitInterval = waitInterval;
+        this.waitAttempts = waitAttempts;
+    }
+
+    /**
+     * @param cacheKey    key the loaded value is cached under
+     * @param cacheLookup reads the value from the cache, empty on a miss
+     * @param loader      loads the value from the source of truth and stores it in the cache
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> load(String cacheKey, Mono<T> cacheLookup, Mono<T> loader) {
+        return (Mono<T>) singleFlight.load(cacheKey,
+                () -> (Mono<Object>) (distributed ? loadWithLock(cacheKey, cacheLookup, loader) : loader));
+    }
+
+    private <T> Mono<T> loadWithLock(String cacheKey, Mono<T> cacheLookup, Mono<T> loader) {
+        String lockKey = LOCK_PREFIX + cacheKey;
+        String token = UUID.randomUUID().toString();
+
+        return redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl)
+                .onErrorResume(e -> {
+                    log.warn("Could not acquire load lock for {}: {}", cacheKey, e.getMessage());
+                    return Mono.just(true);
+                })
+                .flatMap(acquired -> acquired
+                        ? cacheLookup.switchIfEmpty(loader)
+                                .doFinally(signal -> release(lockKey, token))
+                        : awaitLoad(cacheLookup, loader));
+    }
+
+    private <T> Mono<T> awaitLoad(Mono<T> cacheLookup, Mono<T> loader) {
+        return cacheLookup
+                .repeatWhenEmpty(attempts -> attempts.take(waitAttempts).delayElements(waitInterval))
+                .switchIfEmpty(loader);
+    }
+
+    private void release(String lockKey, String token) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), List.of(token))
+                .subscribe(
+                        released -> { },
+                        e -> log.warn("Could not release load lock {}: {}", lockKey, e.getMessage()));
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.danjos.intershop.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Meters for the Redis-backed caches, tagged by namespace ({@code item}, {@code search}):
+ * <ul>
+ *     <li>{@code intershop.cache.gets{result=hit|miss}} - Redis lookups answered or not</li>
+ *     <li>{@code intershop.cache.redis{operation=get|set}} - Redis round trip latency</li>
+ *     <li>{@code intershop.cache.load} and {@code intershop.cache.load.failures} - database fallback on a miss</li>
+ * </ul>
+ * The in-process item cache reports through {@link ItemNearCache} instead.
+ */
+@Component
+public class CacheMetrics {
+    private final Namespace item;
+    private final Namespace search;
+
+    public CacheMetrics(MeterRegistry registry) {
+        this.item = new Namespace("item", registry);
+        this.search = new Namespace("search", registry);
+    }
+
+    public Namespace item() {
+        return item;
+    }
+
+    public Namespace search() {
+        return search;
+    }
+
+    public static final class Namespace {
+        private final MeterRegistry registry;
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter loadFailures;
+        private final Timer redisGet;
+        private final Timer redisSet;
+        private final Timer load;
+
+        Namespace(String name, MeterRegistry registry) {
+            this.registry = registry;
+            this.hits = Counter.builder("intershop.cache.gets")
+                    .tag("namespace", name)
+                    .tag("result", "hit")
+                    .register(registry);
+            this.misses = Counter.builder("intershop.cache.gets")
+                    .tag("namespace", name)
+                    .tag("result", "miss")
+                    .register(registry);
+            this.loadFailures = Counter.builder("intershop.cache.load.failures")
+                    .tag("namespace", name)
+                    .register(registry);
+            this.redisGet = Timer.builder("intershop.cache.redis")
+                    .tag("namespace", name)
+                    .tag("operation", "get")
+                    .register(registry);
+            this.redisSet = Timer.builder("intershop.cache.redis")
+                    .tag("namespace", name)
+                    .tag("operation", "set")
+                    .register(registry);
+            this.load = Timer.builder("intershop.cache.load")
+                    .tag("namespace", name)
+                    .register(registry);
+        }
+
+        public void hit() {
+            hits.increment();
+        }
+
+        public void hits(int count) {
+            if (count > 0) {
+                hits.increment(count);
+            }
+        }
+
+        public void miss() {
+            misses.increment();
+        }
+
+        public void misses(int count) {
+            if (count > 0) {
+                misses.increment(count);
+            }
+        }
+
+        public <T> Mono<T> redisGet(Mono<T> operation) {
+            return time(redisGet, operation);
+        }
+
+        public <T> Mono<T> redisSet(Mono<T> operation) {
+            return time(redisSet, operation);
+        }
+
+        /**
+         * Times a database load and counts it as failed when it errors.
+         */
+        public <T> Mono<T> load(Mono<T> operation) {
+            return time(load, operation.doOnError(e -> loadFailures.increment()));
+        }
+
+        private <T> Mono<T> time(Timer timer, Mono<T> operation) {
+            return Mono.defer(() -> {
+                Timer.Sample sample = Timer.start(registry);
+                return operation.doFinally(signal -> sample.stop(timer));
+            });
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.danjos.intershop.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * A group of cache keys that share a generation number, e.g. {@code item:v3:42}.
+ * Bumping the generation with a single INCR makes every older key unreachable at once;
+ * the orphaned keys are then removed by a background SCAN or simply expire.
+ */
+@Slf4j
+public class CacheNamespace {
+    private static final String GENERATION_KEY_PREFIX = "gen:";
+    private static final int CLEANUP_BATCH_SIZE = 500;
+
+    private final String name;
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final long refreshIntervalNanos;
+    private final Runnable onGenerationChange;
+
+    private volatile long generation = -1;
+    private volatile long refreshedAt;
+
+    public CacheNamespace(String name, ReactiveRedisTemplate<String, Object> redisTemplate,
+                          Duration refreshInterval, Runnable onGenerationChange) {
+        this.name = name;
+        this.redisTemplate = redisTemplate;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.onGenerationChange = onGenerationChange;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Mono<String> key(Object suffix) {
+        return generation().map(currentGeneration -> keyFor(currentGeneration, suffix));
+    }
+
+    public String keyFor(long generation, Object suffix) {
+        return prefix(generation) + suffix;
+    }
+
+    /**
+     * Current generation, re-read from Redis at most once per refresh interval.
+     * INCRBY 0 returns the stored value and initialises a missing counter to zero.
+     */
+    public Mono<Long> generation() {
+        long currentGeneration = generation;
+        if (currentGeneration >= 0 && System.nanoTime() - refreshedAt < refreshIntervalNanos) {
+            return Mono.just(currentGeneration);
+        }
+        return redisTemplate.opsForValue().increment(generationKey(), 0L)
+                .map(this::updateGeneration);
+    }
+
+    public Mono<Long> invalidateAll() {
+        return redisTemplate.opsForValue().increment(generationKey())
+                .map(this::updateGeneration)
+                .doOnNext(newGeneration -> removeOrphanedKeys(newGeneration).subscribe(
+                        removed -> log.debug("Removed {} orphaned keys from cache namespace {}", removed, name),
+                        e -> log.warn("Cleanup of cache namespace {} failed: {}", name, e.getMessage())));
+    }
+
+    /**
+     * Deletes keys of this namespace that belong to any generation other than the given one.
+     * Uses SCAN so Redis is never blocked for the whole keyspace.
+     */
+    public Mono<Long> removeOrphanedKeys(long currentGeneration) {
+        String currentPrefix = prefix(currentGeneration);
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(name + ":v*")
+                .count(1000)
+                .build();
+
+        return redisTemplate.scan(options)
+                .filter(key -> !key.startsWith(currentPrefix))
+                .buffer(CLEANUP_BATCH_SIZE)
+                .concatMap(keys -> redisTemplate.unlink(keys.toArray(new String[0])))
+                .reduce(0L, Long::sum);
+    }
+
+    private long updateGeneration(long newGeneration) {
+        long previousGeneration = generation;
+        generation = newGeneration;
+        refreshedAt = System.nanoTime();
+        if (previousGeneration >= 0 && previousGeneration != newGeneration) {
+            onGenerationChange.run();
+        }
+        return newGeneration;
+    }
+
+    private String prefix(long generation) {
+        return name + ":v" + generation + ":";
+    }
+
+    private String generationKey() {
+        return GENERATION_KEY_PREFIX + name;
+    }
+}
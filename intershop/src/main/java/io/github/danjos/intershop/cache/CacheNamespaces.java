@@ -0,0 +1,29 @@
+package io.github.danjos.intershop.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class CacheNamespaces {
+    private final CacheNamespace item;
+    private final CacheNamespace search;
+
+    public CacheNamespaces(
+            ReactiveRedisTemplate<String, Object> redisTemplate,
+            ItemNearCache nearCache,
+            @Value("${intershop.cache.generation-refresh:1s}") Duration refreshInterval) {
+        this.item = new CacheNamespace("item", redisTemplate, refreshInterval, nearCache::invalidateAll);
+        this.search = new CacheNamespace("search", redisTemplate, refreshInterval, () -> { });
+    }
+
+    public CacheNamespace item() {
+        return item;
+    }
+
+    public CacheNamespace search() {
+        return search;
+    }
+}
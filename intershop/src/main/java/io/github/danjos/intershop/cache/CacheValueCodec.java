@@ -0,0 +1,17 @@
+package io.github.danjos.intershop.cache;
+
+/**
+ * Binary encoding of one cached value type, registered with {@link CompactRedisSerializer}.
+ * Tags must be unique per serializer and stay stable once values are stored in Redis.
+ */
+public interface CacheValueCodec<T> {
+
+    /** Type tag in the range 1..15 written into the value header. */
+    int tag();
+
+    Class<T> type();
+
+    void write(T value, BinaryOutput output);
+
+    T read(BinaryInput input);
+}
@@ -0,0 +1,136 @@
+package io.github.danjos.intershop.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis value serializer that stores registered types in a compact binary form:
+ * one header byte (codec tag, plus a flag when the body is deflated) followed by the body.
+ * Values of any other type are written as plain JSON by the fallback serializer.
+ * JSON never starts with a byte that is a valid header, so values written by the
+ * JSON serializer stay readable after switching codecs.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+    private static final int COMPRESSED_FLAG = 0x80;
+    private static final int TAG_MASK = 0x0F;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+    private final Map<Class<?>, CacheValueCodec<?>> codecsByType = new HashMap<>();
+    private final CacheValueCodec<?>[] codecsByTag = new CacheValueCodec<?>[TAG_MASK + 1];
+
+    /**
+     * @param compressionThreshold bodies of at least this many bytes are deflated; 0 disables compression
+     */
+    public CompactRedisSerializer(RedisSerializer<Object> fallback, int compressionThreshold,
+                                  List<CacheValueCodec<?>> codecs) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+        for (CacheValueCodec<?> codec : codecs) {
+            int tag = codec.tag();
+            if (tag < 1 || tag > TAG_MASK) {
+                throw new IllegalArgumentException("Codec tag must be between 1 and " + TAG_MASK + ": " + tag);
+            }
+            if (codecsByTag[tag] != null) {
+                throw new IllegalArgumentException("Duplicate codec tag " + tag);
+            }
+            codecsByTag[tag] = codec;
+            codecsByType.put(codec.type(), codec);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        CacheValueCodec<Object> codec = value != null ? (CacheValueCodec<Object>) codecsByType.get(value.getClass()) : null;
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+        BinaryOutput output = new BinaryOutput(128);
+        output.writeByte(codec.tag());
+        codec.write(value, output);
+
+        int bodyLength = output.size() - 1;
+        if (compressionThreshold > 0 && bodyLength >= compressionThreshold) {
+            byte[] compressed = compress(codec.tag(), output.buffer(), bodyLength);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        return output.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        int header = bytes[0] & 0xFF;
+        CacheValueCodec<?> codec = (header & ~(COMPRESSED_FLAG | TAG_MASK)) == 0 ? codecsByTag[header & TAG_MASK] : null;
+        if (codec == null) {
+            return fallback.deserialize(bytes);
+        }
+        if ((header & COMPRESSED_FLAG) == 0) {
+            return codec.read(new BinaryInput(bytes, 1, bytes.length - 1));
+        }
+        BinaryInput lengthInput = new BinaryInput(bytes, 1, bytes.length - 1);
+        int bodyLength = lengthInput.readVarInt();
+        int offset = lengthInput.position();
+        byte[] body = inflate(bytes, offset, bytes.length - offset, bodyLength);
+        return codec.read(new BinaryInput(body, 0, body.length));
+    }
+
+    /** Returns the compressed value, or {@code null} when deflating does not make it smaller. */
+    private static byte[] compress(int tag, byte[] value, int bodyLength) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(value, 1, bodyLength);
+            deflater.finish();
+            BinaryOutput output = new BinaryOutput(bodyLength / 2 + 8);
+            output.writeByte(tag | COMPRESSED_FLAG);
+            output.writeVarInt(bodyLength);
+            byte[] chunk = new byte[Math.min(bodyLength, 8192)];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                output.writeBytes(chunk, 0, written);
+                if (output.size() > bodyLength) {
+                    return null;
+                }
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset, int length, int bodyLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, length);
+            byte[] body = new byte[bodyLength];
+            int read = 0;
+            while (read < bodyLength && !inflater.finished()) {
+                int inflated = inflater.inflate(body, read, bodyLength - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != bodyLength) {
+                throw new SerializationException("Truncated compressed cache value");
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupted compressed cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.danjos.intershop.cache;
+
+import io.github.danjos.intershop.model.Item;
+
+public class ItemCodec implements CacheValueCodec<Item> {
+    public static final int TAG = 1;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public Class<Item> type() {
+        return Item.class;
+    }
+
+    @Override
+    public void write(Item item, BinaryOutput output) {
+        output.writeNullableVarLong(item.getId());
+        output.writeString(item.getTitle());
+        output.writeString(item.getDescription());
+        output.writeDouble(item.getPrice());
+        output.writeString(item.getImgPath());
+        output.writeSignedVarLong(item.getStock());
+    }
+
+    @Override
+    public Item read(BinaryInput input) {
+        Item item = new Item();
+        item.setId(input.readNullableVarLong());
+        item.setTitle(input.readString());
+        item.setDescription(input.readString());
+        item.setPrice(input.readDouble());
+        item.setImgPath(input.readString());
+        item.setStock((int) input.readSignedVarLong());
+        return item;
+    }
+}
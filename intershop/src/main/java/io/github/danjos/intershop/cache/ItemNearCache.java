@@ -0,0 +1,69 @@
+package io.github.danjos.intershop.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.danjos.intershop.model.Item;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * In-process L1 cache for items, sitting in front of the {@code item:} keys in Redis.
+ * Entries live for a short TTL so that other nodes' updates become visible quickly.
+ * Its Caffeine statistics are published as the {@code item-near} cache metrics.
+ */
+@Component
+public class ItemNearCache implements MeterBinder {
+    private final Cache<Long, Item> cache;
+
+    public ItemNearCache(
+            @Value("${intershop.cache.item.local.max-size:1000}") long maxSize,
+            @Value("${intershop.cache.item.local.ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Item get(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public Map<Long, Item> getAll(Iterable<Long> ids) {
+        return cache.getAllPresent(ids);
+    }
+
+    public void put(Item item) {
+        if (item != null && item.getId() != null) {
+            cache.put(item.getId(), item);
+        }
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "item-near");
+    }
+}
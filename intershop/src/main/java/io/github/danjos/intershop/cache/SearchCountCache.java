@@ -0,0 +1,55 @@
+package io.github.danjos.intershop.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Total match counts of searches, kept in one Redis hash per search generation
+ * ({@code search:v3:counts}, field = query) so that a single UNLINK drops them all when items change.
+ * With {@code intershop.search.count-mode=none} searches do not count at all and
+ * detect the next page by fetching one extra row instead.
+ */
+@Component
+public class SearchCountCache {
+    private static final String COUNTS_KEY = "counts";
+    private static final String ALL_ITEMS_FIELD = "*";
+    private static final Duration COUNT_TTL = Duration.ofMinutes(5);
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final CacheNamespaces cacheNamespaces;
+    private final boolean countingEnabled;
+
+    public SearchCountCache(
+            ReactiveRedisTemplate<String, Object> redisTemplate,
+            CacheNamespaces cacheNamespaces,
+            @Value("${intershop.search.count-mode:cached}") String countMode) {
+        this.redisTemplate = redisTemplate;
+        this.cacheNamespaces = cacheNamespaces;
+        this.countingEnabled = !"none".equalsIgnoreCase(countMode);
+    }
+
+    public boolean isCountingEnabled() {
+        return countingEnabled;
+    }
+
+    public Mono<Long> count(String query, Mono<Long> counter) {
+        String field = query != null && !query.isEmpty() ? "q:" + query : ALL_ITEMS_FIELD;
+        return cacheNamespaces.search().key(COUNTS_KEY)
+                .flatMap(key -> redisTemplate.<String, Object>opsForHash().get(key, field)
+                        .map(value -> ((Number) value).longValue())
+                        .switchIfEmpty(counter.flatMap(count -> redisTemplate.<String, Object>opsForHash()
+                                .put(key, field, count)
+                                .then(redisTemplate.expire(key, COUNT_TTL))
+                                .thenReturn(count))));
+    }
+
+    public Mono<Void> evictAll() {
+        return cacheNamespaces.search().key(COUNTS_KEY)
+                .flatMap(redisTemplate::unlink)
+                .then();
+    }
+}
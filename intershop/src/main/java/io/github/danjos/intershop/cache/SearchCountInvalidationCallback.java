@@ -0,0 +1,31 @@
+package io.github.danjos.intershop.cache;
+
+import io.github.danjos.intershop.model.Item;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.event.AfterSaveCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Drops cached search counts whenever an item is written through the repositories.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchCountInvalidationCallback implements AfterSaveCallback<Item> {
+    private final SearchCountCache searchCountCache;
+
+    @Override
+    public Publisher<Item> onAfterSave(Item entity, OutboundRow outboundRow, SqlIdentifier table) {
+        return searchCountCache.evictAll()
+                .onErrorResume(e -> {
+                    log.warn("Could not evict search counts after saving item {}: {}", entity.getId(), e.getMessage());
+                    return Mono.empty();
+                })
+                .thenReturn(entity);
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.danjos.intershop.cache;
+
+import io.github.danjos.intershop.dto.SearchResultCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchResultCacheCodec implements CacheValueCodec<SearchResultCache> {
+    /** Tag 2 was used by the format that embedded full items. */
+    public static final int TAG = 3;
+
+    @Override
+    public int tag() {
+        return TAG;
+    }
+
+    @Override
+    public Class<SearchResultCache> type() {
+        return SearchResultCache.class;
+    }
+
+    @Override
+    public void write(SearchResultCache value, BinaryOutput output) {
+        List<Long> itemIds = value.getItemIds() != null ? value.getItemIds() : List.of();
+        output.writeVarInt(itemIds.size());
+        for (Long itemId : itemIds) {
+            output.writeVarLong(itemId);
+        }
+        output.writeVarLong(value.getTotalElements());
+        output.writeVarInt(value.getPageNumber());
+        output.writeVarInt(value.getPageSize());
+    }
+
+    @Override
+    public SearchResultCache read(BinaryInput input) {
+        int size = input.readVarInt();
+        List<Long> itemIds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            itemIds.add(input.readVarLong());
+        }
+        long totalElements = input.readVarLong();
+        int pageNumber = input.readVarInt();
+        int pageSize = input.readVarInt();
+        return new SearchResultCache(itemIds, totalElements, pageNumber, pageSize);
+    }
+}
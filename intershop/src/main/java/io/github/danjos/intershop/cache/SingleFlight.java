@@ -0,0 +1,25 @@
+package io.github.danjos.intershop.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: while a load is in flight,
+ * later subscribers share its result instead of starting their own.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    public Mono<V> load(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> loader.get()
+                .doFinally(signal -> inFlight.remove(k))
+                .cache()));
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
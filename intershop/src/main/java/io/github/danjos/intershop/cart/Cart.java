@@ -0,0 +1,275 @@
+package io.github.danjos.intershop.cart;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Item id to quantity map kept in two primitive arrays with linear probing, so an entry costs
+ * 12 bytes instead of two boxed objects plus a map node. All methods synchronize on the cart,
+ * which makes each increment or decrement atomic when one session fires concurrent requests.
+ * Quantities are always positive; a slot with quantity 0 is free.
+ */
+public final class Cart implements Externalizable {
+    private static final long serialVersionUID = 1L;
+    private static final byte FORMAT_VERSION = 1;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] itemIds;
+    private int[] quantities;
+    private int size;
+
+    public Cart() {
+        this(MIN_CAPACITY);
+    }
+
+    private Cart(int capacity) {
+        itemIds = new long[capacity];
+        quantities = new int[capacity];
+    }
+
+    public static Cart of(Map<Long, Integer> quantities) {
+        Cart cart = new Cart(capacityFor(quantities.size()));
+        quantities.forEach((itemId, quantity) -> {
+            if (quantity != null && quantity > 0) {
+                cart.put(itemId, quantity);
+            }
+        });
+        return cart;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long itemId, int quantity);
+    }
+
+    /**
+     * Adds one unit and returns the new quantity.
+     */
+    public synchronized int increment(long itemId) {
+        int slot = find(itemId);
+        if (slot >= 0) {
+            return ++quantities[slot];
+        }
+        put(itemId, 1);
+        return 1;
+    }
+
+    /**
+     * Removes one unit, dropping the item at zero, and returns the new quantity.
+     */
+    public synchronized int decrement(long itemId) {
+        int slot = find(itemId);
+        if (slot < 0) {
+            return 0;
+        }
+        if (quantities[slot] > 1) {
+            return --quantities[slot];
+        }
+        delete(slot);
+        return 0;
+    }
+
+    /**
+     * Drops the item and returns the quantity it had.
+     */
+    public synchronized int remove(long itemId) {
+        int slot = find(itemId);
+        if (slot < 0) {
+            return 0;
+        }
+        int quantity = quantities[slot];
+        delete(slot);
+        return quantity;
+    }
+
+    synchronized void set(long itemId, int quantity) {
+        if (quantity > 0) {
+            put(itemId, quantity);
+        } else {
+            remove(itemId);
+        }
+    }
+
+    public synchronized int quantity(long itemId) {
+        int slot = find(itemId);
+        return slot < 0 ? 0 : quantities[slot];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized void clear() {
+        itemIds = new long[MIN_CAPACITY];
+        quantities = new int[MIN_CAPACITY];
+        size = 0;
+    }
+
+    public synchronized void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < quantities.length; slot++) {
+            if (quantities[slot] != 0) {
+                consumer.accept(itemIds[slot], quantities[slot]);
+            }
+        }
+    }
+
+    public synchronized Set<Long> itemIds() {
+        Set<Long> ids = new HashSet<>(size * 2);
+        forEach((itemId, quantity) -> ids.add(itemId));
+        return ids;
+    }
+
+    public synchronized Map<Long, Integer> toMap() {
+        Map<Long, Integer> map = new HashMap<>(size * 2);
+        forEach(map::put);
+        return map;
+    }
+
+    public synchronized Cart copy() {
+        Cart copy = new Cart(itemIds.length);
+        System.arraycopy(itemIds, 0, copy.itemIds, 0, itemIds.length);
+        System.arraycopy(quantities, 0, copy.quantities, 0, quantities.length);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Compact form: a version byte, the entry count and then one (long, int) pair per item.
+     */
+    @Override
+    public synchronized void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeInt(size);
+        for (int slot = 0; slot < quantities.length; slot++) {
+            if (quantities[slot] != 0) {
+                out.writeLong(itemIds[slot]);
+                out.writeInt(quantities[slot]);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void readExternal(ObjectInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new InvalidObjectException("Unsupported cart format " + version);
+        }
+        int entries = in.readInt();
+        if (entries < 0) {
+            throw new InvalidObjectException("Negative cart size " + entries);
+        }
+        itemIds = new long[capacityFor(entries)];
+        quantities = new int[itemIds.length];
+        size = 0;
+        for (int i = 0; i < entries; i++) {
+            long itemId = in.readLong();
+            int quantity = in.readInt();
+            if (quantity <= 0) {
+                throw new InvalidObjectException("Non-positive quantity for item " + itemId);
+            }
+            put(itemId, quantity);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Cart other && toMap().equals(other.toMap());
+    }
+
+    @Override
+    public int hashCode() {
+        return toMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Cart" + toMap();
+    }
+
+    private int find(long itemId) {
+        int mask = quantities.length - 1;
+        for (int slot = hash(itemId) & mask; quantities[slot] != 0; slot = (slot + 1) & mask) {
+            if (itemIds[slot] == itemId) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void put(long itemId, int quantity) {
+        if ((size + 1) * 4 > quantities.length * 3) {
+            resize(quantities.length * 2);
+        }
+        int mask = quantities.length - 1;
+        int slot = hash(itemId) & mask;
+        while (quantities[slot] != 0 && itemIds[slot] != itemId) {
+            slot = (slot + 1) & mask;
+        }
+        if (quantities[slot] == 0) {
+            size++;
+        }
+        itemIds[slot] = itemId;
+        quantities[slot] = quantity;
+    }
+
+    /**
+     * Frees a slot and shifts the following entries of the probe run back so lookups never stop early.
+     */
+    private void delete(int slot) {
+        int mask = quantities.length - 1;
+        int free = slot;
+        for (int next = (free + 1) & mask; quantities[next] != 0; next = (next + 1) & mask) {
+            int home = hash(itemIds[next]) & mask;
+            // Move the entry unless its home slot lies cyclically in (free, next]
+            boolean reachable = free <= next ? free < home && home <= next : free < home || home <= next;
+            if (!reachable) {
+                itemIds[free] = itemIds[next];
+                quantities[free] = quantities[next];
+                free = next;
+            }
+        }
+        itemIds[free] = 0;
+        quantities[free] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldIds = itemIds;
+        int[] oldQuantities = quantities;
+        itemIds = new long[capacity];
+        quantities = new int[capacity];
+        size = 0;
+        for (int slot = 0; slot < oldQuantities.length; slot++) {
+            if (oldQuantities[slot] != 0) {
+                put(oldIds[slot], oldQuantities[slot]);
+            }
+        }
+    }
+
+    private static int capacityFor(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < entries * 4 + 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long itemId) {
+        long h = itemId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.danjos.intershop.cart;
+
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+/**
+ * Where the item quantities of a session's cart live. Selected with {@code intershop.cart.store}:
+ * {@code session} keeps them in the WebSession, {@code redis} in a Redis hash per session.
+ */
+public interface CartStore {
+
+    /**
+     * Returns a snapshot of the cart; changing it does not affect the stored cart.
+     */
+    Mono<Cart> getCart(WebSession session);
+
+    Mono<Void> increment(WebSession session, Long itemId);
+
+    /**
+     * Lowers the quantity by one and drops the item when it reaches zero.
+     */
+    Mono<Void> decrement(WebSession session, Long itemId);
+
+    Mono<Void> remove(WebSession session, Long itemId);
+
+    Mono<Void> clear(WebSession session);
+}
@@ -0,0 +1,69 @@
+package io.github.danjos.intershop.cart;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Keeps each cart in a Redis hash {@code cart:<session id>} (field = item id, value = quantity),
+ * so a click is a single HINCRBY instead of rewriting the whole cart, and carts outlive the node
+ * that served them. The hash expires together with the session's idle timeout.
+ */
+@Component
+@ConditionalOnProperty(name = "intershop.cart.store", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisCartStore implements CartStore {
+    private static final String KEY_PREFIX = "cart:";
+    private static final RedisScript<Long> DECREMENT_SCRIPT = RedisScript.of("""
+            if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then return 0 end
+            local quantity = redis.call('HINCRBY', KEYS[1], ARGV[1], -1)
+            if quantity <= 0 then redis.call('HDEL', KEYS[1], ARGV[1]) end
+            return quantity
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    @Override
+    public Mono<Cart> getCart(WebSession session) {
+        return redisTemplate.<String, String>opsForHash().entries(key(session))
+                .collect(Cart::new, (cart, entry) ->
+                        cart.set(Long.parseLong(entry.getKey()), Integer.parseInt(entry.getValue())));
+    }
+
+    @Override
+    public Mono<Void> increment(WebSession session, Long itemId) {
+        // The session holds no attributes in this mode, so it has to be started explicitly to keep its id
+        session.start();
+        String key = key(session);
+        return redisTemplate.<String, String>opsForHash().increment(key, itemId.toString(), 1)
+                .then(redisTemplate.expire(key, session.getMaxIdleTime()))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> decrement(WebSession session, Long itemId) {
+        return redisTemplate.execute(DECREMENT_SCRIPT, List.of(key(session)), List.of(itemId.toString()))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> remove(WebSession session, Long itemId) {
+        return redisTemplate.<String, String>opsForHash().remove(key(session), itemId.toString())
+                .then();
+    }
+
+    @Override
+    public Mono<Void> clear(WebSession session) {
+        return redisTemplate.delete(key(session)).then();
+    }
+
+    private static String key(WebSession session) {
+        return KEY_PREFIX + session.getId();
+    }
+}
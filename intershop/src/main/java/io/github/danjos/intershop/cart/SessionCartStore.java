@@ -0,0 +1,52 @@
+package io.github.danjos.intershop.cart;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.WebSession;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "intershop.cart.store", havingValue = "session", matchIfMissing = true)
+public class SessionCartStore implements CartStore {
+    static final String CART_ATTRIBUTE = "cart";
+
+    @Override
+    public Mono<Cart> getCart(WebSession session) {
+        return Mono.fromSupplier(() -> {
+            Cart cart = (Cart) session.getAttributes().get(CART_ATTRIBUTE);
+            return cart == null ? new Cart() : cart.copy();
+        });
+    }
+
+    @Override
+    public Mono<Void> increment(WebSession session, Long itemId) {
+        return update(session, cart -> cart.increment(itemId));
+    }
+
+    @Override
+    public Mono<Void> decrement(WebSession session, Long itemId) {
+        return update(session, cart -> cart.decrement(itemId));
+    }
+
+    @Override
+    public Mono<Void> remove(WebSession session, Long itemId) {
+        return update(session, cart -> cart.remove(itemId));
+    }
+
+    @Override
+    public Mono<Void> clear(WebSession session) {
+        return Mono.fromRunnable(() -> session.getAttributes().remove(CART_ATTRIBUTE));
+    }
+
+    private Mono<Void> update(WebSession session, Consumer<Cart> mutation) {
+        return Mono.fromRunnable(() -> {
+            // computeIfAbsent on the concurrent attribute map makes parallel requests share one cart
+            Cart cart = (Cart) session.getAttributes().computeIfAbsent(CART_ATTRIBUTE, name -> new Cart());
+            mutation.accept(cart);
+            // Re-put so that session stores that track attribute writes persist the change
+            session.getAttributes().put(CART_ATTRIBUTE, cart);
+        });
+    }
+}
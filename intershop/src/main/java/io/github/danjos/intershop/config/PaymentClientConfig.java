@@ -0,0 +1,109 @@
+package io.github.danjos.intershop.config;
+
+import io.github.danjos.intershop.payment.api.PaymentApi;
+import io.github.danjos.intershop.payment.invoker.ApiClient;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * HTTP client for the payment service: a dedicated, bounded connection pool with explicit timeouts,
+ * and the {@code payment} circuit breaker that fails calls fast while the service is unhealthy.
+ * With {@code intershop.payment.transport=rsocket} calls instead share one RSocket connection.
+ */
+@Configuration
+public class PaymentClientConfig {
+    public static final String CIRCUIT_BREAKER_ID = "payment";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider paymentConnectionProvider(
+            @Value("${intershop.payment.client.max-connections:50}") int maxConnections,
+            @Value("${intershop.payment.client.pending-acquire-timeout:200ms}") Duration pendingAcquireTimeout,
+            @Value("${intershop.payment.client.max-idle-time:30s}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("payment")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .build();
+    }
+
+    @Bean
+    public WebClient paymentWebClient(
+            ConnectionProvider paymentConnectionProvider,
+            @Value("${payment.service.url:http://localhost:8081}") String baseUrl,
+            @Value("${intershop.payment.client.connect-timeout:500ms}") Duration connectTimeout,
+            @Value("${intershop.payment.client.response-timeout:1s}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create(paymentConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Client generated from payment-service's OpenAPI spec, sharing the pooled WebClient.
+     */
+    @Bean
+    public PaymentApi paymentApi(
+            WebClient paymentWebClient,
+            @Value("${payment.service.url:http://localhost:8081}") String baseUrl) {
+        ApiClient apiClient = new ApiClient(paymentWebClient);
+        apiClient.setBasePath(baseUrl);
+        return new PaymentApi(apiClient);
+    }
+
+    /**
+     * Connects lazily on first use and reconnects on the next call after the connection dropped.
+     */
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(name = "intershop.payment.transport", havingValue = "rsocket")
+    public RSocketRequester paymentRSocketRequester(
+            RSocketRequester.Builder builder,
+            @Value("${payment.service.rsocket.host:localhost}") String host,
+            @Value("${payment.service.rsocket.port:7001}") int port) {
+        return builder
+                .dataMimeType(MediaType.APPLICATION_CBOR)
+                .tcp(host, port);
+    }
+
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> paymentCircuitBreakerCustomizer(
+            @Value("${intershop.payment.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${intershop.payment.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${intershop.payment.circuit-breaker.open-duration:10s}") Duration openDuration,
+            @Value("${intershop.payment.circuit-breaker.call-timeout:1500ms}") Duration callTimeout) {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowSize(windowSize)
+                .minimumNumberOfCalls(Math.max(1, windowSize / 2))
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(callTimeout)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .build();
+        TimeLimiterConfig timeLimiterConfig = TimeLimiterConfig.custom()
+                .timeoutDuration(callTimeout)
+                .build();
+        return factory -> factory.configure(builder -> builder
+                        .circuitBreakerConfig(circuitBreakerConfig)
+                        .timeLimiterConfig(timeLimiterConfig),
+                CIRCUIT_BREAKER_ID);
+    }
+}
@@ -1,30 +1,49 @@
 package io.github.danjos.intershop.config;
 
+import io.github.danjos.intershop.cache.CompactRedisSerializer;
+import io.github.danjos.intershop.cache.ItemCodec;
+import io.github.danjos.intershop.cache.SearchResultCacheCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.List;
+
 @Configuration
 public class RedisConfig {
 
+    @Bean
+    public RedisSerializer<Object> cacheValueSerializer(
+            @Value("${intershop.cache.codec.type:binary}") String codecType,
+            @Value("${intershop.cache.codec.compression-threshold:512}") int compressionThreshold) {
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        if ("json".equalsIgnoreCase(codecType)) {
+            return jsonSerializer;
+        }
+        return new CompactRedisSerializer(jsonSerializer, compressionThreshold,
+                List.of(new ItemCodec(), new SearchResultCacheCodec()));
+    }
+
     @Bean
     public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(
-            ReactiveRedisConnectionFactory connectionFactory) {
+            ReactiveRedisConnectionFactory connectionFactory,
+            RedisSerializer<Object> cacheValueSerializer) {
         
         StringRedisSerializer keySerializer = new StringRedisSerializer();
-        GenericJackson2JsonRedisSerializer valueSerializer = new GenericJackson2JsonRedisSerializer();
         
         RedisSerializationContext.RedisSerializationContextBuilder<String, Object> builder =
                 RedisSerializationContext.newSerializationContext(keySerializer);
         
         RedisSerializationContext<String, Object> context = builder
-                .value(valueSerializer)
+                .value(cacheValueSerializer)
                 .hashKey(keySerializer)
-                .hashValue(valueSerializer)
+                .hashValue(cacheValueSerializer)
                 .build();
         
         return new ReactiveRedisTemplate<>(connectionFactory, context);
@@ -1,6 +1,7 @@
 package io.github.danjos.intershop.controller;
 
-import io.github.danjos.intershop.dto.CartItemDto;
+import io.github.danjos.intershop.dto.CartSnapshot;
+import io.github.danjos.intershop.exception.InsufficientStockException;
 import io.github.danjos.intershop.model.User;
 import io.github.danjos.intershop.service.CartService;
 import io.github.danjos.intershop.service.OrderService;
@@ -17,9 +18,6 @@ import org.springframework.web.reactive.result.view.Rendering;
 import org.springframework.web.server.WebSession;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-import java.util.Map;
-
 @Controller
 @RequiredArgsConstructor
 @Slf4j
@@ -32,26 +30,20 @@ public class WebCartController {
     @GetMapping("/cart/items")
     public Mono<Rendering> showCart(WebSession session) {
         return Mono.zip(
-                cartService.getCartItemsReactive(session),
-                cartService.getCartTotalReactive(session),
-                cartService.isCheckoutEnabled(session),
-                userService.getCurrentUser(),
-                paymentClientService.getBalance()
+                cartService.getCartSnapshotWithBalance(session),
+                userService.getCurrentUser()
             )
             .map(tuple -> {
-                List<CartItemDto> items = tuple.getT1();
-                Double total = tuple.getT2();
-                Boolean checkoutEnabled = tuple.getT3();
-                User user = tuple.getT4();
-                Double balance = tuple.getT5();
+                CartSnapshot cart = tuple.getT1();
+                User user = tuple.getT2();
                 
                 return Rendering.view("cart")
-                        .modelAttribute("items", items)
-                        .modelAttribute("total", total)
-                        .modelAttribute("empty", items.isEmpty())
-                        .modelAttribute("checkoutEnabled", checkoutEnabled)
+                        .modelAttribute("items", cart.getItems())
+                        .modelAttribute("total", cart.getTotal())
+                        .modelAttribute("empty", cart.isEmpty())
+                        .modelAttribute("checkoutEnabled", cart.isCheckoutEnabled())
                         .modelAttribute("user", user)
-                        .modelAttribute("balance", balance)
+                        .modelAttribute("balance", cart.getBalance())
                         .build();
             })
             .onErrorResume(e -> {
@@ -66,7 +58,7 @@ public class WebCartController {
             @RequestParam String action, 
             WebSession session) {
         
-        log.info("Handling cart action: {} for item: {}", action, id);
+        log.debug("Handling cart action: {} for item: {}", action, id);
         
         Mono<Void> cartOperation = Mono.empty();
         
@@ -88,35 +80,47 @@ public class WebCartController {
 
     @PostMapping("/buy")
     public Mono<Rendering> createOrder(WebSession session) {
-        log.info("Creating order from cart");
+        log.debug("Creating order from cart");
         
         return Mono.zip(
-                Mono.just(cartService.getCart(session)),
-                cartService.getCartTotalReactive(session),
+                cartService.getCartSnapshot(session),
                 userService.getCurrentUser()
             )
             .flatMap(tuple -> {
-                Map<Long, Integer> cart = tuple.getT1();
-                Double total = tuple.getT2();
-                User user = tuple.getT3();
+                CartSnapshot cart = tuple.getT1();
+                double total = cart.getTotal();
+                User user = tuple.getT2();
                 
-                log.info("Cart items: {}, Total: {}, User: {}", cart, total, user.getUsername());
+                log.debug("Cart items: {}, Total: {}, User: {}", cart.getCart(), total, user.getUsername());
                 
-                return paymentClientService.processPayment(total, "order-" + System.currentTimeMillis())
-                    .flatMap(paymentSuccess -> {
-                        if (paymentSuccess) {
-                            log.info("Payment successful, creating order");
-                            return orderService.createOrderFromCart(cart, user)
-                                .map(order -> {
-                                    session.getAttributes().remove("cart");
-                                    log.info("Order created successfully: {}", order.getId());
-                                    return Rendering.redirectTo("/orders/" + order.getId() + "?newOrder=true").build();
-                                });
-                        } else {
-                            log.warn("Payment failed, redirecting to cart");
-                            return Mono.just(Rendering.redirectTo("/cart/items?paymentFailed=true").build());
-                        }
-                    });
+                // Creating the order reserves its stock, so nothing is charged for items that ran out.
+                // The order is saved pending and the order total is charged, so whatever happens to this
+                // request the settlement job can replay the same payment.
+                return orderService.createOrderFromCart(cart.getCart().toMap(), user)
+                    .flatMap(order -> paymentClientService.processPayment(order.getTotalSum(), order.getPaymentId())
+                        .flatMap(outcome -> switch (outcome) {
+                            case APPROVED -> {
+                                log.info("Order created successfully: {}", order.getId());
+                                yield orderService.markPaid(order)
+                                    .then(cartService.clearCart(session))
+                                    .thenReturn(Rendering.redirectTo("/orders/" + order.getId() + "?newOrder=true").build());
+                            }
+                            case DECLINED -> {
+                                log.warn("Payment declined, cancelling order {}", order.getId());
+                                yield orderService.cancelOrder(order)
+                                    .thenReturn(Rendering.redirectTo("/cart/items?paymentFailed=true").build());
+                            }
+                            // The account may have been debited, so the order stays pending until it is settled
+                            case UNKNOWN -> {
+                                log.warn("Payment outcome unknown, keeping order {} pending", order.getId());
+                                yield cartService.clearCart(session)
+                                    .thenReturn(Rendering.redirectTo("/orders/" + order.getId()).build());
+                            }
+                        }));
+            })
+            .onErrorResume(InsufficientStockException.class, e -> {
+                log.warn("Order rejected: {}", e.getMessage());
+                return Mono.just(Rendering.redirectTo("/cart/items?outOfStock=true").build());
             })
             .onErrorResume(e -> {
                 log.error("Error in createOrder", e);
@@ -1,5 +1,6 @@
 package io.github.danjos.intershop.controller;
 
+import io.github.danjos.intershop.cart.Cart;
 import io.github.danjos.intershop.dto.CartItemDto;
 import io.github.danjos.intershop.model.Item;
 import io.github.danjos.intershop.service.CartService;
@@ -18,7 +19,7 @@ import org.springframework.web.server.WebSession;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Map;
+
 import java.util.stream.Collectors;
 
 @Controller
@@ -35,25 +36,28 @@ public class WebController {
             @RequestParam(name = "search", required = false, defaultValue = "") String search,
             @RequestParam(name = "pageSize", required = false, defaultValue = "10") int pageSize,
             @RequestParam(name = "pageNumber", required = false, defaultValue = "1") int pageNumber,
+            @RequestParam(name = "cursor", required = false) String cursor,
             WebSession session) {
 
         return Mono.zip(
-                itemService.searchItems(search, pageNumber, pageSize, sort),
-                Mono.just(cartService.getCart(session))
+                itemService.searchItems(search, pageNumber, pageSize, sort, cursor),
+                cartService.getCart(session)
             )
             .map(tuple -> {
                 Page<Item> mainPage = tuple.getT1();
-                Map<Long, Integer> cart = tuple.getT2();
+                Cart cart = tuple.getT2();
                 
-                Paging paging = new Paging(pageNumber, pageSize, mainPage.hasNext(), mainPage.hasPrevious());
+                Paging paging = new Paging(mainPage.getNumber() + 1, pageSize, mainPage.hasNext(), mainPage.hasPrevious(),
+                        itemService.nextCursor(mainPage, search, sort));
                 
                 List<CartItemDto> itemsWithCount = mainPage.getContent().stream()
-                        .map(item -> new CartItemDto(item, cart.getOrDefault(item.getId(), 0)))
+                        .map(item -> new CartItemDto(item, cart.quantity(item.getId())))
                         .collect(Collectors.toList());
 
                 return Rendering.view("main")
                         .modelAttribute("items", itemsWithCount)
                         .modelAttribute("search", search)
+                        .modelAttribute("sort", sort)
                         .modelAttribute("paging", paging)
                         .build();
             })
@@ -69,7 +73,7 @@ public class WebController {
             @RequestParam String action,
             WebSession session) {
 
-        log.info("Handling main item action: {} for item: {}", action, id);
+        log.debug("Handling main item action: {} for item: {}", action, id);
         
         Mono<Void> cartOperation = Mono.empty();
         
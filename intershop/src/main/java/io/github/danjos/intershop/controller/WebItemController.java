@@ -1,5 +1,6 @@
 package io.github.danjos.intershop.controller;
 
+import io.github.danjos.intershop.cart.Cart;
 import io.github.danjos.intershop.dto.CartItemDto;
 import io.github.danjos.intershop.service.CartService;
 import io.github.danjos.intershop.service.ItemService;
@@ -14,8 +15,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
-
 @Controller
 @RequiredArgsConstructor
 @Slf4j
@@ -28,12 +27,12 @@ public class WebItemController {
     public Mono<Rendering> showItem(@PathVariable Long id, WebSession session) {
         return Mono.zip(
                         itemService.getItemById(id),
-                        Mono.just(cartService.getCart(session))
+                        cartService.getCart(session)
                 )
                 .map(tuple -> {
                     var item = tuple.getT1();
-                    Map<Long, Integer> cart = tuple.getT2();
-                    int count = cart.getOrDefault(id, 0);
+                    Cart cart = tuple.getT2();
+                    int count = cart.quantity(id);
 
                     CartItemDto itemWithCount = new CartItemDto(item, count);
 
@@ -53,7 +52,7 @@ public class WebItemController {
             @RequestParam String action,
             WebSession session) {
 
-        log.info("Handling item action: {} for item: {}", action, id);
+        log.debug("Handling item action: {} for item: {}", action, id);
 
         Mono<Void> cartOperation = Mono.empty();
 
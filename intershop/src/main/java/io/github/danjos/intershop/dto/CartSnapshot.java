@@ -0,0 +1,37 @@
+package io.github.danjos.intershop.dto;
+
+import io.github.danjos.intershop.cart.Cart;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Everything a cart page or checkout needs, computed from one item lookup. The balance is only
+ * present when it was requested.
+ */
+@Value
+public class CartSnapshot {
+    Cart cart;
+    List<CartItemDto> items;
+    double total;
+    Double balance;
+
+    public static CartSnapshot of(Cart cart, List<CartItemDto> items) {
+        double total = items.stream()
+                .mapToDouble(item -> item.getPrice() * item.getCount())
+                .sum();
+        return new CartSnapshot(cart, items, total, null);
+    }
+
+    public CartSnapshot withBalance(double balance) {
+        return new CartSnapshot(cart, items, total, balance);
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public boolean isCheckoutEnabled() {
+        return balance != null && balance >= total;
+    }
+}
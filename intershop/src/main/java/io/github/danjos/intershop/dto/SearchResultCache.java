@@ -6,30 +6,33 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 
+/**
+ * Cached search page. Only the ordered item ids are stored; the items themselves are
+ * hydrated through the item cache, so a changed item is never served from a stale page.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SearchResultCache {
-    private List<Item> items;
+    private List<Long> itemIds;
     private long totalElements;
     private int pageNumber;
     private int pageSize;
     
     public static SearchResultCache fromPage(Page<Item> page) {
         return new SearchResultCache(
-            page.getContent(),
+            page.getContent().stream().map(Item::getId).toList(),
             page.getTotalElements(),
             page.getNumber(),
             page.getSize()
         );
     }
     
-    public Page<Item> toPage() {
-        Pageable pageable = org.springframework.data.domain.PageRequest.of(pageNumber, pageSize);
-        return new PageImpl<>(items, pageable, totalElements);
+    public Page<Item> toPage(List<Item> items) {
+        return new PageImpl<>(items, PageRequest.of(pageNumber, pageSize), totalElements);
     }
 }
@@ -0,0 +1,20 @@
+package io.github.danjos.intershop.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientStockException extends RuntimeException {
+    private final List<Long> itemIds;
+
+    public InsufficientStockException(List<Long> itemIds) {
+        super("Insufficient stock for items " + itemIds);
+        this.itemIds = List.copyOf(itemIds);
+    }
+
+    public List<Long> getItemIds() {
+        return itemIds;
+    }
+}
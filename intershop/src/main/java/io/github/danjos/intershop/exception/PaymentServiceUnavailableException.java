@@ -0,0 +1,8 @@
+package io.github.danjos.intershop.exception;
+
+public class PaymentServiceUnavailableException extends RuntimeException {
+
+    public PaymentServiceUnavailableException(String message) {
+        super(message);
+    }
+}
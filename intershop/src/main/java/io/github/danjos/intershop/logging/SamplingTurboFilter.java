@@ -0,0 +1,104 @@
+package io.github.danjos.intershop.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets at most {@code permits} events per call site through in every {@code interval}, where a
+ * call site is the logger and message pattern. Runs before the event is built, so a dropped line
+ * costs neither formatting nor a slot in the async queue. WARN and ERROR always pass, as do
+ * loggers outside {@code loggerPrefix}.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int MAX_SITES = 4096;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, AtomicLong>> sites = new ConcurrentHashMap<>();
+    private final long origin = System.nanoTime();
+
+    private String loggerPrefix = "";
+    private int permits = 10;
+    private long intervalNanos = java.time.Duration.ofSeconds(1).toNanos();
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setPermits(int permits) {
+        this.permits = permits;
+    }
+
+    public void setInterval(Duration interval) {
+        this.intervalNanos = java.time.Duration.ofMillis(interval.getMilliseconds()).toNanos();
+    }
+
+    @Override
+    public void start() {
+        if (permits < 0 || permits > COUNT_MASK) {
+            addError("permits must be between 0 and " + COUNT_MASK);
+            return;
+        }
+        if (intervalNanos <= 0) {
+            addError("interval must be positive");
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (!isStarted() || format == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())
+                || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        return tryAcquire(site(logger.getName(), format)) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private AtomicLong site(String loggerName, String format) {
+        ConcurrentMap<String, AtomicLong> formats = sites.computeIfAbsent(loggerName, name -> new ConcurrentHashMap<>());
+        AtomicLong site = formats.get(format);
+        if (site == null) {
+            // Patterns built by concatenation would otherwise grow the map without bound
+            if (formats.size() >= MAX_SITES) {
+                formats.clear();
+            }
+            site = formats.computeIfAbsent(format, f -> new AtomicLong());
+        }
+        return site;
+    }
+
+    /**
+     * The site state packs the current window number and the count used in it into one long.
+     */
+    private boolean tryAcquire(AtomicLong site) {
+        if (permits == 0) {
+            return false;
+        }
+        long window = (System.nanoTime() - origin) / intervalNanos;
+        while (true) {
+            long state = site.get();
+            long next;
+            if (state >>> COUNT_BITS != window) {
+                next = (window << COUNT_BITS) | 1;
+            } else if ((state & COUNT_MASK) < permits) {
+                next = state + 1;
+            } else {
+                return false;
+            }
+            if (site.compareAndSet(state, next)) {
+                return true;
+            }
+        }
+    }
+}
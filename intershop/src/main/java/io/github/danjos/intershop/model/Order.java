@@ -12,6 +12,9 @@ import java.util.List;
 @Table("orders")
 @Data
 public class Order {
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_PAYMENT_PENDING = "PAYMENT_PENDING";
+
     @Id
     private Long id;
 
@@ -26,4 +29,11 @@ public class Order {
     public double getTotalSum() {
         return items.stream().mapToDouble(oi -> oi.getPrice() * oi.getQuantity()).sum();
     }
+
+    /**
+     * The order id sent to payment-service, which also uses it as the idempotency key.
+     */
+    public String getPaymentId() {
+        return "order-" + id;
+    }
 }
@@ -7,10 +7,11 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
 import java.util.Set;
 
 @Repository
-public interface ItemRepository extends R2dbcRepository<Item, Long> {
+public interface ItemRepository extends R2dbcRepository<Item, Long>, ItemStockRepository {
     @Query("SELECT * FROM items WHERE LOWER(title) LIKE LOWER(CONCAT('%', :title, '%')) LIMIT :limit OFFSET :offset")
     Flux<Item> findByTitleContainingIgnoreCase(String title, int limit, int offset);
 
@@ -23,15 +24,27 @@ public interface ItemRepository extends R2dbcRepository<Item, Long> {
     @Query("SELECT COUNT(*) FROM items WHERE LOWER(title) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(description) LIKE LOWER(CONCAT('%', :query, '%'))")
     Mono<Long> countByTitleOrDescriptionContainingIgnoreCase(String query);
 
-    @Query("SELECT * FROM items ORDER BY title ASC LIMIT :limit OFFSET :offset")
+    @Query("SELECT * FROM items ORDER BY title ASC, id ASC LIMIT :limit OFFSET :offset")
     Flux<Item> findByOrderByTitleAsc(int limit, int offset);
 
-    @Query("SELECT * FROM items ORDER BY price ASC LIMIT :limit OFFSET :offset")
+    @Query("SELECT * FROM items ORDER BY price ASC, id ASC LIMIT :limit OFFSET :offset")
     Flux<Item> findByOrderByPriceAsc(int limit, int offset);
 
     @Query("SELECT * FROM items ORDER BY id ASC LIMIT :limit OFFSET :offset")
     Flux<Item> findAllByOrderByIdAsc(int limit, int offset);
 
+    // The leading "title >= :title" is what lets the planner seek idx_items_title_id to the cursor and
+    // range-scan from there in index order; the OR alone would be a full scan filtered row by row.
+    @Query("SELECT * FROM items WHERE title >= :title AND (title > :title OR id > :id) ORDER BY title ASC, id ASC LIMIT :limit")
+    Flux<Item> findPageAfterTitle(String title, long id, int limit);
+
+    // Range scan of idx_items_price_id from "price >= :price", as for findPageAfterTitle
+    @Query("SELECT * FROM items WHERE price >= :price AND (price > :price OR id > :id) ORDER BY price ASC, id ASC LIMIT :limit")
+    Flux<Item> findPageAfterPrice(BigDecimal price, long id, int limit);
+
+    @Query("SELECT * FROM items WHERE id > :id ORDER BY id ASC LIMIT :limit")
+    Flux<Item> findPageAfterId(long id, int limit);
+
     @Query("SELECT COUNT(*) FROM items")
     Mono<Long> countAll();
 
@@ -0,0 +1,21 @@
+package io.github.danjos.intershop.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface ItemStockRepository {
+
+    /**
+     * Decrements the stock of every item by its quantity, but only where enough stock is left,
+     * in one batched statement. Returns the ids that could not be reserved; the caller's
+     * transaction must roll back the other decrements in that case.
+     */
+    Flux<Long> reserveStock(Map<Long, Integer> quantities);
+
+    /**
+     * Adds the given (possibly negative) deltas to the stock of the items.
+     */
+    Mono<Void> adjustStock(Map<Long, Integer> deltas);
+}
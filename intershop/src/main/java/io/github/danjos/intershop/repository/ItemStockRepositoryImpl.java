@@ -0,0 +1,64 @@
+package io.github.danjos.intershop.repository;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class ItemStockRepositoryImpl implements ItemStockRepository {
+    private static final String RESERVE_SQL = "UPDATE items SET stock = stock - $1 WHERE id = $2 AND stock >= $3";
+    private static final String ADJUST_SQL = "UPDATE items SET stock = stock + $1 WHERE id = $2";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Long> reserveStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return Flux.empty();
+        }
+        // Rows are always updated in id order so concurrent checkouts cannot deadlock
+        List<Map.Entry<Long, Integer>> entries = List.copyOf(new TreeMap<>(quantities).entrySet());
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(RESERVE_SQL);
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                statement.bind(0, entries.get(i).getValue())
+                        .bind(1, entries.get(i).getKey())
+                        .bind(2, entries.get(i).getValue());
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(Result::getRowsUpdated)
+                    .index()
+                    .filter(updated -> updated.getT2() == 0)
+                    .map(updated -> entries.get(updated.getT1().intValue()).getKey());
+        });
+    }
+
+    @Override
+    public Mono<Void> adjustStock(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Map.Entry<Long, Integer>> entries = List.copyOf(new TreeMap<>(deltas).entrySet());
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(ADJUST_SQL);
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                statement.bind(0, entries.get(i).getValue())
+                        .bind(1, entries.get(i).getKey());
+            }
+            return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+        }).then();
+    }
+}
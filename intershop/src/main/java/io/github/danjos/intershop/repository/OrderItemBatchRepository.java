@@ -0,0 +1,14 @@
+package io.github.danjos.intershop.repository;
+
+import io.github.danjos.intershop.model.OrderItem;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface OrderItemBatchRepository {
+
+    /**
+     * Inserts all lines with one multi-binding statement and returns them with their generated ids.
+     */
+    Flux<OrderItem> insertAll(List<OrderItem> orderItems);
+}
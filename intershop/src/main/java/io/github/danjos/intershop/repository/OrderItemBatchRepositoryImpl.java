@@ -0,0 +1,45 @@
+package io.github.danjos.intershop.repository;
+
+import io.github.danjos.intershop.model.OrderItem;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OrderItemBatchRepositoryImpl implements OrderItemBatchRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO order_items (order_id, item_id, quantity, price) VALUES ($1, $2, $3, $4)";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<OrderItem> insertAll(List<OrderItem> orderItems) {
+        if (orderItems.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_SQL).returnGeneratedValues("id");
+            for (int i = 0; i < orderItems.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                OrderItem orderItem = orderItems.get(i);
+                statement.bind(0, orderItem.getOrderId())
+                        .bind(1, orderItem.getItemId())
+                        .bind(2, orderItem.getQuantity())
+                        .bind(3, orderItem.getPrice());
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> row.get(0, Long.class)))
+                    .index()
+                    .map(generated -> {
+                        OrderItem orderItem = orderItems.get(generated.getT1().intValue());
+                        orderItem.setId(generated.getT2());
+                        return orderItem;
+                    });
+        });
+    }
+}
@@ -1,13 +1,34 @@
 package io.github.danjos.intershop.repository;
 
 import io.github.danjos.intershop.model.Order;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
 
 @Repository
 public interface OrderRepository extends ReactiveCrudRepository<Order, Long> {
 
     Flux<Order> findByUserId(Long userId);
 
-}
\ No newline at end of file
+    Flux<Order> findByStatusAndOrderDateBefore(String status, LocalDateTime orderDate);
+
+    /**
+     * Deletes the order only while it still has {@code status}; answers with the number of rows
+     * deleted, so of several concurrent callers exactly one sees 1.
+     */
+    @Modifying
+    @Query("DELETE FROM orders WHERE id = :id AND status = :status")
+    Mono<Integer> deleteByIdAndStatus(Long id, String status);
+
+    /**
+     * Moves the order from {@code expected} to {@code status}; answers with the number of rows updated.
+     */
+    @Modifying
+    @Query("UPDATE orders SET status = :status WHERE id = :id AND status = :expected")
+    Mono<Integer> updateStatus(Long id, String expected, String status);
+}
@@ -0,0 +1,43 @@
+package io.github.danjos.intershop.search;
+
+import io.github.danjos.intershop.model.Item;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.event.AfterSaveCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps {@link ItemSearchIndex} current for items written through the repositories. Inside a
+ * transaction the item is indexed only once it commits, so rolled-back writes never show up.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemIndexingCallback implements AfterSaveCallback<Item> {
+    private final ItemSearchIndex searchIndex;
+
+    @Override
+    public Publisher<Item> onAfterSave(Item entity, OutboundRow outboundRow, SqlIdentifier table) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .doOnNext(synchronizations -> synchronizations.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(() -> searchIndex.put(entity));
+                    }
+                }))
+                .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+                .hasElement()
+                .doOnNext(deferred -> {
+                    if (!deferred) {
+                        searchIndex.put(entity);
+                    }
+                })
+                .thenReturn(entity);
+    }
+}
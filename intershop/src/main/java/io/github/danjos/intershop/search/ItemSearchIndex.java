@@ -0,0 +1,320 @@
+package io.github.danjos.intershop.search;
+
+import io.github.danjos.intershop.model.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process substring index over item titles and descriptions. Each field is lower-cased and
+ * split into trigrams; a query intersects the posting sets of its own trigrams and then checks
+ * the surviving candidates, which gives the same matches as {@code LOWER(col) LIKE '%q%'}.
+ * Queries shorter than a trigram fall back to scanning the in-memory documents.
+ * <p>
+ * Items are added and re-indexed through {@link #put(Item)}; there is no delete path, so an item
+ * deleted from the database keeps matching (and is then dropped by the id lookup) until the next
+ * periodic {@link #rebuild(Collection)} leaves it out. Between {@link #beginRebuild()} and
+ * {@link #rebuild(Collection)} every put is also recorded and replayed onto the new snapshot, so
+ * writes that race the snapshot load are kept.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Postings postings = new Postings();
+    private List<Consumer<Postings>> pendingUpdates;
+    private volatile boolean ready;
+
+    public ItemSearchIndex(@Value("${intershop.search.index.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public record Hits(List<Long> ids, long total) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Starts recording updates; call it before loading the items passed to {@link #rebuild(Collection)}.
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdates == null) {
+                pendingUpdates = new ArrayList<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void cancelRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void rebuild(Collection<Item> items) {
+        Postings rebuilt = new Postings();
+        items.stream()
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .forEach(rebuilt::put);
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            replayed = pendingUpdates == null ? 0 : pendingUpdates.size();
+            if (pendingUpdates != null) {
+                pendingUpdates.forEach(update -> update.accept(rebuilt));
+                pendingUpdates = null;
+            }
+            postings = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index rebuilt with {} items, {} concurrent updates replayed", items.size(), replayed);
+    }
+
+    public void put(Item item) {
+        if (!enabled || item.getId() == null) {
+            return;
+        }
+        Consumer<Postings> update = target -> target.put(item);
+        lock.writeLock().lock();
+        try {
+            update.accept(postings);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of matching ids in ascending id order together with the total match count.
+     */
+    public Hits search(String query, int offset, int limit) {
+        String needle = normalize(query);
+        lock.readLock().lock();
+        try {
+            int[] matches = postings.match(needle);
+            int from = Math.min(offset, matches.length);
+            int to = Math.min(from + limit, matches.length);
+            List<Long> ids = new ArrayList<>(to - from);
+            if (postings.inIdOrder) {
+                for (int i = from; i < to; i++) {
+                    ids.add(postings.ids.get(matches[i]));
+                }
+            } else {
+                long[] sorted = new long[matches.length];
+                for (int i = 0; i < matches.length; i++) {
+                    sorted[i] = postings.ids.get(matches[i]);
+                }
+                Arrays.sort(sorted);
+                for (int i = from; i < to; i++) {
+                    ids.add(sorted[i]);
+                }
+            }
+            return new Hits(ids, matches.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * Slot-addressed documents with one sorted slot array per trigram. Slots are handed out in
+     * arrival order and never move: a re-saved item keeps its slot and only the postings of its old
+     * and new trigrams change. A rebuild loads items by ascending id, so slot order is id order until
+     * an id lower than the highest one arrives; from then until the next rebuild a query sorts its
+     * matching ids instead.
+     */
+    private static final class Postings {
+        private final Map<Long, Integer> slots = new HashMap<>();
+        private final List<Long> ids = new ArrayList<>();
+        private final List<Document> documents = new ArrayList<>();
+        private final Map<Long, Posting> grams = new HashMap<>();
+        private boolean inIdOrder = true;
+
+        void put(Item item) {
+            Document document = new Document(normalize(item.getTitle()), normalize(item.getDescription()));
+            Integer slot = slots.get(item.getId());
+            if (slot == null) {
+                if (!ids.isEmpty() && item.getId() < ids.get(ids.size() - 1)) {
+                    inIdOrder = false;
+                }
+                slot = ids.size();
+                ids.add(item.getId());
+                documents.add(document);
+                slots.put(item.getId(), slot);
+            } else {
+                unindex(documents.get(slot), slot);
+                documents.set(slot, document);
+            }
+            index(document, slot);
+        }
+
+        /**
+         * Slots whose document contains {@code needle}, in ascending slot order. The postings of the
+         * needle's trigrams are merged smallest first, so the work is bounded by the rarest trigram.
+         */
+        int[] match(String needle) {
+            int[] candidates;
+            if (needle.length() < GRAM) {
+                candidates = new int[documents.size()];
+                for (int slot = 0; slot < candidates.length; slot++) {
+                    candidates[slot] = slot;
+                }
+            } else {
+                List<Posting> lists = new ArrayList<>();
+                for (int i = 0; i + GRAM <= needle.length(); i++) {
+                    Posting posting = grams.get(trigram(needle, i));
+                    if (posting == null) {
+                        return new int[0];
+                    }
+                    lists.add(posting);
+                }
+                lists.sort(Comparator.comparingInt(posting -> posting.size));
+                candidates = Arrays.copyOf(lists.get(0).slots, lists.get(0).size);
+                for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                    candidates = lists.get(i).retain(candidates);
+                }
+            }
+            int kept = 0;
+            for (int slot : candidates) {
+                if (documents.get(slot).contains(needle)) {
+                    candidates[kept++] = slot;
+                }
+            }
+            return kept == candidates.length ? candidates : Arrays.copyOf(candidates, kept);
+        }
+
+        private void index(Document document, int slot) {
+            index(document.title(), slot);
+            index(document.description(), slot);
+        }
+
+        private void unindex(Document document, int slot) {
+            unindex(document.title(), slot);
+            unindex(document.description(), slot);
+        }
+
+        private void index(String text, int slot) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.computeIfAbsent(trigram(text, i), key -> new Posting()).add(slot);
+            }
+        }
+
+        private void unindex(String text, int slot) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                long key = trigram(text, i);
+                Posting posting = grams.get(key);
+                if (posting != null && posting.remove(slot) && posting.size == 0) {
+                    grams.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorted, duplicate-free slots of one trigram. New items take the highest slot, so adding is
+     * usually an append; only a re-saved item is inserted in the middle.
+     */
+    private static final class Posting {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            int at = size == 0 || slots[size - 1] < slot ? size : Arrays.binarySearch(slots, 0, size, slot);
+            if (at < 0) {
+                at = -at - 1;
+            } else if (at < size) {
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Merges this posting with the sorted {@code candidates}, keeping the slots found in both.
+         */
+        int[] retain(int[] candidates) {
+            int kept = 0;
+            int i = 0;
+            for (int candidate : candidates) {
+                while (i < size && slots[i] < candidate) {
+                    i++;
+                }
+                if (i == size) {
+                    break;
+                }
+                if (slots[i] == candidate) {
+                    candidates[kept++] = candidate;
+                }
+            }
+            return Arrays.copyOf(candidates, kept);
+        }
+    }
+
+    private record Document(String title, String description) {
+        boolean contains(String needle) {
+            return title.contains(needle) || description.contains(needle);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.danjos.intershop.search;
+
+import io.github.danjos.intershop.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Builds the search index once the application is up and rebuilds it periodically, which also
+ * picks up deletes and rows written outside the repositories.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndexLoader {
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex searchIndex;
+    private final Duration rebuildInterval;
+
+    private Disposable schedule;
+
+    public ItemSearchIndexLoader(ItemRepository itemRepository,
+                                 ItemSearchIndex searchIndex,
+                                 @Value("${intershop.search.index.rebuild-interval:5m}") Duration rebuildInterval) {
+        this.itemRepository = itemRepository;
+        this.searchIndex = searchIndex;
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!searchIndex.isEnabled()) {
+            return;
+        }
+        Flux<Long> ticks = rebuildInterval.isZero()
+                ? Flux.just(0L)
+                : Flux.interval(Duration.ZERO, rebuildInterval);
+        schedule = ticks
+                .concatMap(tick -> rebuild()
+                        .onErrorResume(e -> {
+                            log.warn("Search index rebuild failed: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public Mono<Void> rebuild() {
+        return Mono.fromRunnable(searchIndex::beginRebuild)
+                .thenMany(itemRepository.findAll())
+                .collectList()
+                .doOnNext(searchIndex::rebuild)
+                .doOnError(e -> searchIndex.cancelRebuild())
+                .doOnCancel(searchIndex::cancelRebuild)
+                .then();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+}
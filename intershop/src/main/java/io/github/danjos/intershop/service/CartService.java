@@ -1,91 +1,57 @@
 package io.github.danjos.intershop.service;
 
+import io.github.danjos.intershop.cart.Cart;
+import io.github.danjos.intershop.cart.CartStore;
 import io.github.danjos.intershop.dto.CartItemDto;
+import io.github.danjos.intershop.dto.CartSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.WebSession;
 import reactor.core.publisher.Mono;
 
-import java.util.*;
-
 @Service
 @RequiredArgsConstructor
 public class CartService {
     private final ItemService itemService;
+    private final CartStore cartStore;
     private final PaymentClientService paymentClientService;
 
-    public void addItemToCart(Long itemId, WebSession session) {
-        Map<Long, Integer> cart = getCart(session);
-        cart.put(itemId, cart.getOrDefault(itemId, 0) + 1);
-        session.getAttributes().put("cart", cart);
-    }
-
-    public void removeItemFromCart(Long itemId, WebSession session) {
-        Map<Long, Integer> cart = getCart(session);
-        if (cart.containsKey(itemId)) {
-            if (cart.get(itemId) > 1) {
-                cart.put(itemId, cart.get(itemId) - 1);
-            } else {
-                cart.remove(itemId);
-            }
-        }
-        session.getAttributes().put("cart", cart);
-    }
-
     public Mono<Void> addItemToCartReactive(Long itemId, WebSession session) {
-        return Mono.fromRunnable(() -> addItemToCart(itemId, session));
+        return cartStore.increment(session, itemId);
     }
 
     public Mono<Void> removeItemFromCartReactive(Long itemId, WebSession session) {
-        return Mono.fromRunnable(() -> removeItemFromCart(itemId, session));
+        return cartStore.decrement(session, itemId);
     }
 
     public Mono<Void> deleteItemFromCartReactive(Long itemId, WebSession session) {
-        return Mono.fromRunnable(() -> {
-            Map<Long, Integer> cart = getCart(session);
-            cart.remove(itemId);
-            session.getAttributes().put("cart", cart);
-        });
+        return cartStore.remove(session, itemId);
     }
 
-    public Map<Long, Integer> getCart(WebSession session) {
-        Object cartAttribute = session.getAttributes().get("cart");
-        Map<Long, Integer> cart;
-        if (cartAttribute instanceof Map) {
-            cart = (Map<Long, Integer>) cartAttribute;
-        } else {
-            cart = new HashMap<>();
-            session.getAttributes().put("cart", cart);
-        }
-        return cart;
+    public Mono<Void> clearCart(WebSession session) {
+        return cartStore.clear(session);
     }
 
-    public Mono<List<CartItemDto>> getCartItemsReactive(WebSession session) {
-        Map<Long, Integer> cart = getCart(session);
-
-        Set<Long> ids =  cart.isEmpty() ? new HashSet<>() : cart.keySet();
-        
-        return itemService.getItemByIds(ids)
-                .map(item -> new CartItemDto(item, cart.getOrDefault(item.getId(), 0))).collectList();
+    public Mono<Cart> getCart(WebSession session) {
+        return cartStore.getCart(session);
     }
 
-    public Mono<Double> getCartTotalReactive(WebSession session) {
-        return getCartItemsReactive(session)
-                .map(cartItems -> cartItems.stream()
-                        .mapToDouble(item -> item.getPrice() * item.getCount())
-                        .sum());
+    /**
+     * Loads the cart and its items once and derives the total from them.
+     */
+    public Mono<CartSnapshot> getCartSnapshot(WebSession session) {
+        return getCart(session)
+                .flatMap(cart -> itemService.getItemByIds(cart.itemIds())
+                        .map(item -> new CartItemDto(item, cart.quantity(item.getId())))
+                        .collectList()
+                        .map(items -> CartSnapshot.of(cart, items)));
     }
-    
-    public Mono<Boolean> isCheckoutEnabled(WebSession session) {
-        return Mono.zip(
-                getCartTotalReactive(session),
-                paymentClientService.getBalance()
-            )
-            .map(tuple -> {
-                Double cartTotal = tuple.getT1();
-                Double balance = tuple.getT2();
-                return balance >= cartTotal;
-            })
-            .onErrorReturn(false);
+
+    /**
+     * Same as {@link #getCartSnapshot(WebSession)} plus the balance, fetched in parallel with the items.
+     */
+    public Mono<CartSnapshot> getCartSnapshotWithBalance(WebSession session) {
+        return Mono.zip(getCartSnapshot(session), paymentClientService.getBalance())
+                .map(tuple -> tuple.getT1().withBalance(tuple.getT2()));
     }
 }
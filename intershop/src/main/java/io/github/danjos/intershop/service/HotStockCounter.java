@@ -0,0 +1,171 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.exception.InsufficientStockException;
+import io.github.danjos.intershop.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis-held stock for flash-sale items, configured with {@code intershop.stock.hot-items}.
+ * Reservations are checked and applied by one Lua script, so they never touch the {@code items} row;
+ * the accumulated decrements are written back to the database every reconcile interval.
+ * Counters are plain strings, seeded from the database (minus decrements not yet written back) on first use.
+ */
+@Component
+@Slf4j
+public class HotStockCounter {
+    // The hash tag keeps all counters in one cluster slot so the scripts may touch several of them
+    private static final String KEY_PREFIX = "stock:{hot}:";
+    private static final RedisScript<Long> RESERVE_SCRIPT = RedisScript.of("""
+            for i, key in ipairs(KEYS) do
+              local available = redis.call('GET', key)
+              if not available then return -i end
+              if tonumber(available) < tonumber(ARGV[i]) then return i end
+            end
+            for i, key in ipairs(KEYS) do
+              redis.call('DECRBY', key, ARGV[i])
+            end
+            return 0
+            """, Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+            for i, key in ipairs(KEYS) do
+              if redis.call('EXISTS', key) == 1 then redis.call('INCRBY', key, ARGV[i]) end
+            end
+            return 0
+            """, Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ItemRepository itemRepository;
+    private final Set<Long> hotItemIds;
+    private final Duration reconcileInterval;
+    private final Map<Long, AtomicLong> pendingDecrements = new ConcurrentHashMap<>();
+
+    private Disposable schedule;
+
+    public HotStockCounter(
+            ReactiveStringRedisTemplate redisTemplate,
+            ItemRepository itemRepository,
+            @Value("${intershop.stock.hot-items:}") Set<Long> hotItemIds,
+            @Value("${intershop.stock.reconcile-interval:1s}") Duration reconcileInterval) {
+        this.redisTemplate = redisTemplate;
+        this.itemRepository = itemRepository;
+        this.hotItemIds = Set.copyOf(hotItemIds);
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    public boolean isHot(Long itemId) {
+        return hotItemIds.contains(itemId);
+    }
+
+    public Mono<Void> reserve(Map<Long, Integer> quantities) {
+        return reserve(quantities, true);
+    }
+
+    private Mono<Void> reserve(Map<Long, Integer> quantities, boolean seedMissing) {
+        if (quantities.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        return redisTemplate.execute(RESERVE_SCRIPT, keys(ids), amounts(ids, quantities))
+                .next()
+                .flatMap(result -> {
+                    if (result == 0) {
+                        ids.forEach(id -> pending(id).addAndGet(quantities.get(id)));
+                        return Mono.empty();
+                    }
+                    if (result < 0 && seedMissing) {
+                        return seed(ids).then(reserve(quantities, false));
+                    }
+                    Long itemId = ids.get((int) Math.abs(result) - 1);
+                    return Mono.error(new InsufficientStockException(List.of(itemId)));
+                });
+    }
+
+    public Mono<Void> release(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        return redisTemplate.execute(RELEASE_SCRIPT, keys(ids), amounts(ids, quantities))
+                .then(Mono.fromRunnable(() -> ids.forEach(id -> pending(id).addAndGet(-quantities.get(id)))));
+    }
+
+    /**
+     * Writes the decrements accumulated since the last run back to the {@code items} table.
+     */
+    public Mono<Void> reconcile() {
+        Map<Long, Integer> deltas = new HashMap<>();
+        pendingDecrements.forEach((id, pending) -> {
+            long decrement = pending.getAndSet(0);
+            if (decrement != 0) {
+                deltas.put(id, (int) -decrement);
+            }
+        });
+        return itemRepository.adjustStock(deltas)
+                .doOnError(e -> deltas.forEach((id, delta) -> pending(id).addAndGet(-delta)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (hotItemIds.isEmpty()) {
+            return;
+        }
+        schedule = Flux.interval(reconcileInterval)
+                .concatMap(tick -> reconcile()
+                        .onErrorResume(e -> {
+                            log.warn("Stock reconciliation failed, will retry: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+            reconcile().block(reconcileInterval.plusSeconds(5));
+        }
+    }
+
+    private Mono<Void> seed(List<Long> ids) {
+        return Flux.fromIterable(ids)
+                .concatMap(id -> itemRepository.findById(id)
+                        .flatMap(item -> redisTemplate.opsForValue()
+                                .setIfAbsent(key(id), String.valueOf(item.getStock() - pending(id).get()))))
+                .then();
+    }
+
+    private AtomicLong pending(Long itemId) {
+        return pendingDecrements.computeIfAbsent(itemId, id -> new AtomicLong());
+    }
+
+    private static String key(Long itemId) {
+        return KEY_PREFIX + itemId;
+    }
+
+    private static List<String> keys(List<Long> ids) {
+        return ids.stream().map(HotStockCounter::key).toList();
+    }
+
+    private static List<String> amounts(List<Long> ids, Map<Long, Integer> quantities) {
+        return ids.stream().map(id -> String.valueOf(quantities.get(id))).toList();
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.payment.api.PaymentApi;
+import io.github.danjos.intershop.payment.model.PaymentBatchRequest;
+import io.github.danjos.intershop.payment.model.PaymentRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * JSON over HTTP through the client generated from payment-service's {@code api-spec.yaml}; the
+ * default transport. Responses are decoded by the streaming Jackson decoder straight into the
+ * generated models, without an intermediate map.
+ */
+@Component
+@ConditionalOnProperty(name = "intershop.payment.transport", havingValue = "http", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class HttpPaymentTransport implements PaymentTransport {
+
+    private final PaymentApi paymentApi;
+
+    @Override
+    public Mono<Double> getBalance() {
+        return paymentApi.getBalance()
+                .map(response -> response.getBalance() != null ? response.getBalance() : 0.0);
+    }
+
+    @Override
+    public Mono<Boolean> processPayment(PaymentRequest request) {
+        // The order id doubles as the idempotency key, so retried and hedged requests are charged once
+        return paymentApi.processPayment(request, request.getOrderId())
+                .map(response -> Boolean.TRUE.equals(response.getSuccess()))
+                // A declined payment (400, or 422 for an order id reused with another amount) is a valid
+                // answer and must not count as a failure of the service
+                .onErrorResume(e -> e instanceof WebClientResponseException response
+                        && response.getStatusCode().is4xxClientError(), e -> {
+                    log.warn("Payment failed for order {}: {}", request.getOrderId(), e.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    @Override
+    public Mono<List<PaymentOutcome>> processPaymentBatch(List<PaymentRequest> requests) {
+        return paymentApi.processPaymentBatch(new PaymentBatchRequest().payments(requests))
+                .map(response -> response.getResults() == null
+                        ? List.of()
+                        : response.getResults().stream().map(PaymentOutcome::of).toList());
+    }
+
+    @Override
+    public boolean isTransient(Throwable e) {
+        return e instanceof WebClientRequestException
+                || e instanceof TimeoutException
+                || e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+}
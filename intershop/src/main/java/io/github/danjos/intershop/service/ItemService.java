@@ -1,25 +1,39 @@
 package io.github.danjos.intershop.service;
 
+import io.github.danjos.intershop.cache.CacheLoadCoordinator;
+import io.github.danjos.intershop.cache.CacheMetrics;
+import io.github.danjos.intershop.cache.CacheNamespaces;
+import io.github.danjos.intershop.cache.ItemNearCache;
+import io.github.danjos.intershop.cache.SearchCountCache;
 import io.github.danjos.intershop.dto.SearchResultCache;
 import io.github.danjos.intershop.exception.NotFoundException;
 import io.github.danjos.intershop.model.Item;
 import io.github.danjos.intershop.repository.ItemRepository;
+import io.github.danjos.intershop.search.ItemSearchIndex;
+import io.github.danjos.intershop.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.ReactiveStringCommands.SetCommand;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,54 +41,129 @@ import java.util.Set;
 public class ItemService {
     private final ItemRepository itemRepository;
     private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ItemNearCache nearCache;
+    private final CacheLoadCoordinator loadCoordinator;
+    private final CacheNamespaces cacheNamespaces;
+    private final ItemSearchIndex searchIndex;
+    private final SearchCountCache searchCountCache;
+    private final CacheMetrics cacheMetrics;
     
-    private static final String ITEM_CACHE_PREFIX = "item:";
     private static final Duration CACHE_TTL = Duration.ofMinutes(5);
 
     public Mono<Page<Item>> searchItems(String query, int pageNumber, int pageSize, String sort) {
-        String cacheKey = String.format("search:%s:%d:%d:%s", 
-            query != null ? query : "NO", pageNumber, pageSize, sort != null ? sort : "DEFAULT");
+        return searchItems(query, pageNumber, pageSize, sort, null);
+    }
+
+    public Mono<Page<Item>> searchItems(String query, int pageNumber, int pageSize, String sort, String cursor) {
+        boolean listing = query == null || query.isEmpty();
+        PageCursor pageCursor = listing ? resolveCursor(sort, cursor) : null;
+        int effectivePage;
+        if (pageCursor != null) {
+            effectivePage = pageCursor.getPageNumber();
+        } else if (listing && cursor != null && !cursor.isEmpty()) {
+            // A cursor that cannot be used for this listing restarts it
+            effectivePage = 1;
+        } else {
+            effectivePage = Math.max(pageNumber, 1);
+        }
+        int effectiveSize = Math.max(pageSize, 1);
+        String searchKey = String.format("%s:%d:%d:%s", 
+            query != null ? query : "NO", effectivePage, effectiveSize, sort != null ? sort : "DEFAULT");
+        if (pageCursor != null) {
+            searchKey += ":after:" + cursor;
+        }
+        
+        return cacheNamespaces.search().key(searchKey)
+            .flatMap(cacheKey -> searchItems(cacheKey, query, effectivePage, effectiveSize, sort, pageCursor));
+    }
+
+    private static PageCursor resolveCursor(String sort, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        return PageCursor.decode(cursor)
+                .filter(pageCursor -> pageCursor.appliesTo(sort))
+                .orElse(null);
+    }
+
+    private Mono<Page<Item>> searchItems(String cacheKey, String query, int pageNumber, int pageSize, String sort,
+                                         PageCursor cursor) {
+        CacheMetrics.Namespace metrics = cacheMetrics.search();
+        Mono<SearchResultCache> cachedSearch = metrics.redisGet(redisTemplate.opsForValue().get(cacheKey))
+            .cast(SearchResultCache.class)
+            .onErrorResume(SerializationException.class, e -> {
+                log.warn("Ignoring unreadable search cache entry {}: {}", cacheKey, e.getMessage());
+                return Mono.empty();
+            });
         
-        return redisTemplate.opsForValue().get(cacheKey)
-            .map(cachedSearchData -> {
-                log.info("Cache hit for search: {}", cacheKey);
-                return ((SearchResultCache) cachedSearchData).toPage();
-            })
-            .switchIfEmpty(
-                performSearch(query, pageNumber, pageSize, sort)
+        return cachedSearch
+            .doOnNext(cacheData -> metrics.hit())
+            .switchIfEmpty(Mono.fromRunnable(metrics::miss).then(loadCoordinator.load(cacheKey, cachedSearch,
+                metrics.load(Mono.defer(() -> performSearch(query, pageNumber, pageSize, sort, cursor)))
                     .flatMap(page -> {
-                        log.info("Cache miss for search: {}, storing in cache", cacheKey);
+                        log.debug("Storing search result in cache: {}", cacheKey);
                         SearchResultCache cacheData = SearchResultCache.fromPage(page);
-                        return redisTemplate.opsForValue()
-                            .set(cacheKey, cacheData, CACHE_TTL)
-                            .thenReturn(page);
+                        return Mono.when(
+                                metrics.redisSet(redisTemplate.opsForValue().set(cacheKey, cacheData, CACHE_TTL)),
+                                putItemsInCache(page.getContent()))
+                            .thenReturn(cacheData);
                     })
-            );
+            )))
+            .flatMap(cacheData -> getItemByIds(new LinkedHashSet<>(cacheData.getItemIds()))
+                .collectList()
+                .map(cacheData::toPage));
     }
 
     public Mono<Page<Item>> performSearch(String query, int pageNumber, int pageSize, String sort) {
+        return performSearch(query, pageNumber, pageSize, sort, null);
+    }
+
+    /**
+     * Listing pages reached through a cursor seek on (title, id), (price, id) or id instead of
+     * skipping rows with OFFSET. Text searches always use offset paging and are answered from
+     * {@link ItemSearchIndex} once it has been built.
+     */
+    public Mono<Page<Item>> performSearch(String query, int pageNumber, int pageSize, String sort, PageCursor cursor) {
         Pageable pageable = PageRequest.of(pageNumber - 1, pageSize);
         int limit = pageable.getPageSize();
         int offset = (int) pageable.getOffset();
         
+        if (query != null && !query.isEmpty() && searchIndex.isReady()) {
+            ItemSearchIndex.Hits hits = searchIndex.search(query, offset, limit);
+            return getItemByIds(new LinkedHashSet<>(hits.ids()))
+                    .collectList()
+                    .map(items -> new PageImpl<>(items, pageable, hits.total()));
+        }
+        
+        boolean lookahead = !searchCountCache.isCountingEnabled();
+        int fetchLimit = lookahead ? limit + 1 : limit;
         Flux<Item> itemsFlux;
         Mono<Long> totalCountMono;
         
         if (query != null && !query.isEmpty()) {
-            itemsFlux = itemRepository.findByTitleOrDescriptionContainingIgnoreCase(query, limit, offset);
+            itemsFlux = itemRepository.findByTitleOrDescriptionContainingIgnoreCase(query, fetchLimit, offset);
             totalCountMono = itemRepository.countByTitleOrDescriptionContainingIgnoreCase(query);
         } else if ("ALPHA".equals(sort)) {
-            itemsFlux = itemRepository.findByOrderByTitleAsc(limit, offset);
+            itemsFlux = cursor != null
+                    ? itemRepository.findPageAfterTitle(cursor.getValue(), cursor.getId(), fetchLimit)
+                    : itemRepository.findByOrderByTitleAsc(fetchLimit, offset);
             totalCountMono = itemRepository.countAll();
         } else if ("PRICE".equals(sort)) {
-            itemsFlux = itemRepository.findByOrderByPriceAsc(limit, offset);
+            itemsFlux = cursor != null
+                    ? itemRepository.findPageAfterPrice(cursor.priceValue(), cursor.getId(), fetchLimit)
+                    : itemRepository.findByOrderByPriceAsc(fetchLimit, offset);
             totalCountMono = itemRepository.countAll();
         } else {
-            itemsFlux = itemRepository.findAllByOrderByIdAsc(limit, offset);
+            itemsFlux = cursor != null
+                    ? itemRepository.findPageAfterId(cursor.getId(), fetchLimit)
+                    : itemRepository.findAllByOrderByIdAsc(fetchLimit, offset);
             totalCountMono = itemRepository.countAll();
         }
         
-        return Mono.zip(itemsFlux.collectList(), totalCountMono)
+        if (lookahead) {
+            return itemsFlux.collectList().map(items -> lookaheadPage(items, pageable));
+        }
+        return Mono.zip(itemsFlux.collectList(), searchCountCache.count(query, totalCountMono))
                 .map(tuple -> {
                     var items = tuple.getT1();
                     var total = tuple.getT2();
@@ -82,89 +171,167 @@ public class ItemService {
                 });
     }
 
+    /**
+     * Builds a page from {@code pageSize + 1} fetched rows. The reported total is only a lower bound,
+     * exact enough for {@code hasNext}.
+     */
+    private static Page<Item> lookaheadPage(List<Item> items, Pageable pageable) {
+        boolean hasMore = items.size() > pageable.getPageSize();
+        List<Item> content = hasMore ? items.subList(0, pageable.getPageSize()) : items;
+        return new PageImpl<>(content, pageable, pageable.getOffset() + content.size() + (hasMore ? 1 : 0));
+    }
+
+    public String nextCursor(Page<Item> page, String query, String sort) {
+        if (!page.hasNext() || page.getContent().isEmpty() || (query != null && !query.isEmpty())) {
+            return null;
+        }
+        Item last = page.getContent().get(page.getContent().size() - 1);
+        return PageCursor.after(sort, page.getNumber() + 2, last).encode();
+    }
+
     public Mono<Item> getItemById(Long id) {
-        String cacheKey = ITEM_CACHE_PREFIX + id;
+        return Mono.defer(() -> Mono.justOrEmpty(nearCache.get(id)))
+                .switchIfEmpty(cacheNamespaces.item().key(id)
+                        .flatMap(cacheKey -> getItemById(cacheKey, id)));
+    }
+
+    private Mono<Item> getItemById(String cacheKey, Long id) {
+        CacheMetrics.Namespace metrics = cacheMetrics.item();
+        Mono<Item> cachedItem = metrics.redisGet(redisTemplate.opsForValue().get(cacheKey))
+                .map(value -> {
+                    Item item = (Item) value;
+                    nearCache.put(item);
+                    return item;
+                });
         
-        return redisTemplate.opsForValue().get(cacheKey)
-                .map(cachedItem -> {
-                    log.info("Cache hit for item: {}", id);
-                    return (Item) cachedItem;
-                })
-                .switchIfEmpty(
-                    itemRepository.findById(id)
+        return cachedItem
+                .doOnNext(item -> metrics.hit())
+                .switchIfEmpty(Mono.fromRunnable(metrics::miss).then(loadCoordinator.load(cacheKey, cachedItem,
+                    metrics.load(itemRepository.findById(id))
                         .flatMap(item -> {
-                            log.info("Cache miss for item: {}, storing in cache", id);
-                            return redisTemplate.opsForValue()
-                                    .set(cacheKey, item, CACHE_TTL)
+                            log.debug("Storing item in cache: {}", id);
+                            nearCache.put(item);
+                            return metrics.redisSet(redisTemplate.opsForValue().set(cacheKey, item, CACHE_TTL))
                                     .thenReturn(item);
                         })
                         .switchIfEmpty(Mono.error(new NotFoundException("Item with id " + id + " not found")))
-                );
+                )));
     }
 
     public Flux<Item> getItemByIds(Set<Long> ids) {
-        return Flux.fromIterable(ids)
-            .flatMap(id -> {
-                String cacheKey = ITEM_CACHE_PREFIX + id;
-                return redisTemplate.opsForValue().get(cacheKey)
-                    .map(cachedItem -> (Item) cachedItem);
-            })
-            .collectList()
-            .flatMapMany(cachedItems -> {
-                Set<Long> missingIds = new HashSet<>();
-                List<Item> result = new ArrayList<>();
-                
-                for (int i = 0; i < ids.size(); i++) {
-                    if (!cachedItems.isEmpty() && cachedItems.get(i) != null) {
-                        result.add(cachedItems.get(i));
-                    } else {
-                        missingIds.add(ids.toArray(new Long[0])[i]);
+        return Flux.defer(() -> {
+            if (ids.isEmpty()) {
+                return Flux.empty();
+            }
+            Map<Long, Item> found = new HashMap<>(nearCache.getAll(ids));
+            if (found.size() == ids.size()) {
+                return Flux.fromIterable(inRequestedOrder(ids, found));
+            }
+            List<Long> remainingIds = ids.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .toList();
+
+            return cacheNamespaces.item().generation()
+                    .flatMap(generation -> loadItems(generation, remainingIds, found))
+                    .flatMapIterable(items -> inRequestedOrder(ids, items));
+        });
+    }
+
+    private Mono<Map<Long, Item>> loadItems(long generation, List<Long> ids, Map<Long, Item> found) {
+        return getCachedItems(generation, ids)
+                .flatMap(cachedItems -> {
+                    found.putAll(cachedItems);
+                    Set<Long> missingIds = ids.stream()
+                            .filter(id -> !cachedItems.containsKey(id))
+                            .collect(Collectors.toSet());
+                    cacheMetrics.item().hits(cachedItems.size());
+                    cacheMetrics.item().misses(missingIds.size());
+                    if (missingIds.isEmpty()) {
+                        return Mono.just(found);
                     }
-                }
-                
-                if (missingIds.isEmpty()) {
-                    return Flux.fromIterable(result);
-                } else {
-                    return itemRepository.findAllItemsByIds(missingIds)
-                        .flatMap(item -> {
-                            String cacheKey = ITEM_CACHE_PREFIX + item.getId();
-                            return redisTemplate.opsForValue()
-                                .set(cacheKey, item, CACHE_TTL)
-                                .thenReturn(item);
-                        })
-                        .collectList()
-                        .flatMapMany(missingItems -> {
-                            result.addAll(missingItems);
-                            return Flux.fromIterable(result);
-                        });
-                }
-            });
+                    return cacheMetrics.item().load(itemRepository.findAllItemsByIds(missingIds).collectList())
+                            .flatMap(loadedItems -> {
+                                loadedItems.forEach(item -> {
+                                    nearCache.put(item);
+                                    found.put(item.getId(), item);
+                                });
+                                return cacheItems(generation, loadedItems).thenReturn(found);
+                            });
+                });
+    }
+
+    private Mono<Map<Long, Item>> getCachedItems(long generation, List<Long> ids) {
+        List<String> cacheKeys = ids.stream()
+                .map(id -> cacheNamespaces.item().keyFor(generation, id))
+                .toList();
+
+        return cacheMetrics.item().redisGet(redisTemplate.opsForValue().multiGet(cacheKeys))
+                .map(values -> {
+                    Map<Long, Item> items = new HashMap<>();
+                    for (Object value : values) {
+                        if (value instanceof Item item) {
+                            nearCache.put(item);
+                            items.put(item.getId(), item);
+                        }
+                    }
+                    return items;
+                });
+    }
+
+    private Mono<Void> cacheItems(long generation, List<Item> items) {
+        if (items.isEmpty()) {
+            return Mono.empty();
+        }
+        RedisSerializationContext<String, Object> context = redisTemplate.getSerializationContext();
+        Expiration expiration = Expiration.from(CACHE_TTL);
+
+        return cacheMetrics.item().redisSet(redisTemplate.execute(connection -> connection.stringCommands().set(
+                        Flux.fromIterable(items).map(item -> SetCommand
+                                .set(context.getKeySerializationPair().write(cacheNamespaces.item().keyFor(generation, item.getId())))
+                                .value(context.getValueSerializationPair().write(item))
+                                .expiring(expiration))))
+                .then());
+    }
+
+    private Mono<Void> putItemsInCache(List<Item> items) {
+        items.forEach(nearCache::put);
+        return cacheNamespaces.item().generation()
+                .flatMap(generation -> cacheItems(generation, items));
+    }
+
+    private static List<Item> inRequestedOrder(Set<Long> ids, Map<Long, Item> items) {
+        List<Item> result = new ArrayList<>(items.size());
+        for (Long id : ids) {
+            Item item = items.get(id);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
     }
     
     public Mono<Void> clearItemCache(Long itemId) {
-        String cacheKey = ITEM_CACHE_PREFIX + itemId;
-        log.info("Clearing cache for item: {}", itemId);
-        return redisTemplate.delete(cacheKey).then();
+        log.debug("Clearing cache for item: {}", itemId);
+        nearCache.invalidate(itemId);
+        return cacheNamespaces.item().key(itemId)
+                .flatMap(redisTemplate::delete)
+                .then();
     }
     
     public Mono<Void> clearAllItemCache() {
-        log.info("Clearing all item cache");
-        return redisTemplate.keys(ITEM_CACHE_PREFIX + "*")
-                .flatMap(redisTemplate::delete)
-                .then();
+        log.debug("Clearing all item cache");
+        nearCache.invalidateAll();
+        return cacheNamespaces.item().invalidateAll().then();
     }
     
     public Mono<Void> clearSearchCache() {
-        log.info("Clearing all search cache");
-        return redisTemplate.keys("search:*")
-                .flatMap(redisTemplate::delete)
-                .then();
+        log.debug("Clearing all search cache");
+        return cacheNamespaces.search().invalidateAll().then();
     }
     
     public Mono<Void> clearAllCache() {
-        log.info("Clearing all cache");
-        return Mono.zip(clearAllItemCache(), clearSearchCache())
-                .then();
+        log.debug("Clearing all cache");
+        return Mono.when(clearAllItemCache(), clearSearchCache());
     }
 
-}
\ No newline at end of file
+}
@@ -6,6 +6,7 @@ import io.github.danjos.intershop.repository.OrderRepository;
 import io.github.danjos.intershop.repository.OrderItemRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -19,64 +20,143 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ItemService itemService;
+    private final StockReservationService stockReservationService;
 
+    /**
+     * Reserves stock for the cart and then saves the order header and all of its lines, all in
+     * one transaction; the lines go to the database as a single batched insert. Fails with
+     * {@link io.github.danjos.intershop.exception.InsufficientStockException} before anything
+     * is written when an item is short.
+     * <p>
+     * The order starts out {@link Order#STATUS_PAYMENT_PENDING}, so a checkout that never learns
+     * the payment outcome (a crash, a dropped request) leaves it to {@link PaymentSettlementJob}.
+     */
+    @Transactional
     public Mono<Order> createOrderFromCart(Map<Long, Integer> cartItems, User user) {
         Order order = new Order();
         order.setUserId(user.getId());
         order.setOrderDate(LocalDateTime.now());
-        order.setStatus("PROCESSING");
+        order.setStatus(Order.STATUS_PAYMENT_PENDING);
         Set<Long> itemIds = cartItems.keySet();
 
-        return orderRepository.save(order)
-                .flatMap(savedOrder -> {
-                    return itemService.getItemByIds(itemIds)
-                            .map(item -> {
-                                        OrderItem orderItem = new OrderItem();
-                                        orderItem.setOrderId(savedOrder.getId());
-                                        orderItem.setItemId(item.getId());
-                                        orderItem.setQuantity(cartItems.get(item.getId()));
-                                        orderItem.setPrice(item.getPrice());
-                                        orderItem.setOrder(savedOrder);
-                                        orderItem.setItem(item);
-                                        return orderItem;
-                                    })
-                                    .flatMap(orderItemRepository::save)
-                                    .collectList()
-                                    .map(savedOrderItems -> {
-                                        savedOrder.setItems(savedOrderItems);
-                                        return savedOrder;
-                                    });
+        return stockReservationService.reserve(cartItems)
+                .then(Mono.defer(() -> saveOrder(order, cartItems, itemIds))
+                        .onErrorResume(e -> stockReservationService.releaseHot(cartItems).then(Mono.error(e))));
+    }
+
+    /**
+     * Deletes an order whose payment was declined and puts its stock back. Checkout and the
+     * settlement job on every node may try this for the same order; only the call that actually
+     * deletes the pending row releases stock, and it answers {@code true}.
+     */
+    @Transactional
+    public Mono<Boolean> cancelOrder(Order order) {
+        Map<Long, Integer> quantities = order.getItems().stream()
+                .collect(Collectors.toMap(OrderItem::getItemId, OrderItem::getQuantity, Integer::sum));
+        return orderRepository.deleteByIdAndStatus(order.getId(), Order.STATUS_PAYMENT_PENDING)
+                .flatMap(deleted -> deleted == 1
+                        ? stockReservationService.release(quantities).thenReturn(true)
+                        : Mono.just(false));
+    }
+
+    /**
+     * Moves a pending order to {@link Order#STATUS_PROCESSING} once its payment is approved. Answers
+     * {@code false} when the order is no longer pending, e.g. another node settled it first.
+     */
+    public Mono<Boolean> markPaid(Order order) {
+        return orderRepository.updateStatus(order.getId(), Order.STATUS_PAYMENT_PENDING, Order.STATUS_PROCESSING)
+                .map(updated -> {
+                    if (updated == 1) {
+                        order.setStatus(Order.STATUS_PROCESSING);
+                    }
+                    return updated == 1;
                 });
     }
 
+    /**
+     * Orders still waiting for their payment outcome that were placed before {@code placedBefore}.
+     */
+    public Flux<Order> getPaymentPendingOrders(LocalDateTime placedBefore) {
+        return orderRepository.findByStatusAndOrderDateBefore(Order.STATUS_PAYMENT_PENDING, placedBefore)
+                .collectList()
+                .flatMapMany(orders -> orders.isEmpty()
+                        ? Flux.empty()
+                        : populateOrdersWithItems(orders, orderItemRepository.findByOrderIdIn(
+                                orders.stream().map(Order::getId).collect(Collectors.toSet()))));
+    }
+
+    private Mono<Order> saveOrder(Order order, Map<Long, Integer> cartItems, Set<Long> itemIds) {
+        return orderRepository.save(order)
+                .flatMap(savedOrder -> itemService.getItemByIds(itemIds)
+                        .map(item -> {
+                            OrderItem orderItem = new OrderItem();
+                            orderItem.setOrderId(savedOrder.getId());
+                            orderItem.setItemId(item.getId());
+                            orderItem.setQuantity(cartItems.get(item.getId()));
+                            orderItem.setPrice(item.getPrice());
+                            orderItem.setOrder(savedOrder);
+                            orderItem.setItem(item);
+                            return orderItem;
+                        })
+                        .collectList()
+                        .flatMap(orderItems -> orderItems.isEmpty()
+                                ? Mono.just(orderItems)
+                                : orderItemRepository.insertAll(orderItems).collectList())
+                        .map(savedOrderItems -> {
+                            savedOrder.setItems(savedOrderItems);
+                            return savedOrder;
+                        }));
+    }
+
     public Flux<Order> getUserOrders(User user) {
         return orderRepository.findByUserId(user.getId())
-                .flatMap(this::populateOrderWithItems);
+                .collectList()
+                .flatMapMany(orders -> {
+                    if (orders.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    Set<Long> orderIds = orders.stream()
+                            .map(Order::getId)
+                            .collect(Collectors.toSet());
+                    return populateOrdersWithItems(orders, orderItemRepository.findByOrderIdIn(orderIds));
+                });
     }
 
     public Mono<Order> getOrderById(Long id) {
         return orderRepository.findById(id)
                 .switchIfEmpty(Mono.error(new NotFoundException("Order with id " + id + " not found")))
-                .flatMap(this::populateOrderWithItems);
+                .flatMap(order -> populateOrdersWithItems(List.of(order), orderItemRepository.findByOrderId(order.getId()))
+                        .next());
     }
 
-    private Mono<Order> populateOrderWithItems(Order order) {
-        return orderItemRepository.findByOrderId(order.getId())
+    /**
+     * Assembles order graphs from one batch of order lines: all referenced items are resolved
+     * with a single {@link ItemService#getItemByIds} call however many orders there are.
+     */
+    private Flux<Order> populateOrdersWithItems(List<Order> orders, Flux<OrderItem> orderItemsFlux) {
+        Map<Long, Order> ordersById = new HashMap<>();
+        orders.forEach(order -> {
+            order.setItems(new ArrayList<>());
+            ordersById.put(order.getId(), order);
+        });
+
+        return orderItemsFlux
                 .collectList()
-                .flatMap(orderItems -> {
+                .flatMapMany(orderItems -> {
                     Set<Long> itemIds = orderItems.stream()
                             .map(OrderItem::getItemId)
                             .collect(Collectors.toSet());
                     
                     return itemService.getItemByIds(itemIds)
                             .collectMap(Item::getId)
-                            .map(itemMap -> {
+                            .flatMapIterable(itemMap -> {
                                 orderItems.forEach(orderItem -> {
+                                    Order order = ordersById.get(orderItem.getOrderId());
                                     orderItem.setItem(itemMap.get(orderItem.getItemId()));
                                     orderItem.setOrder(order);
+                                    order.getItems().add(orderItem);
                                 });
-                                order.setItems(orderItems);
-                                return order;
+                                return orders;
                             });
                 });
     }
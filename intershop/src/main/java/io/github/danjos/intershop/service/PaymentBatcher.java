@@ -0,0 +1,85 @@
+package io.github.danjos.intershop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Groups concurrent payments into one batch call. A batch is sent when it reaches {@code maxSize}
+ * payments or {@code window} after its first payment arrived, whichever comes first, so a lone
+ * payment waits at most one window.
+ */
+@Slf4j
+final class PaymentBatcher {
+    private final Function<List<PendingPayment>, Mono<List<PaymentOutcome>>> sender;
+    private final Duration window;
+    private final int maxSize;
+    private final Scheduler scheduler;
+
+    private List<PendingPayment> pending = new ArrayList<>();
+
+    record PendingPayment(double amount, String orderId, Sinks.One<PaymentOutcome> result) {
+    }
+
+    /**
+     * @param sender sends one batch and answers with one result per payment, in order
+     */
+    PaymentBatcher(Function<List<PendingPayment>, Mono<List<PaymentOutcome>>> sender, Duration window, int maxSize, Scheduler scheduler) {
+        this.sender = sender;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.scheduler = scheduler;
+    }
+
+    Mono<PaymentOutcome> submit(double amount, String orderId) {
+        return Mono.defer(() -> {
+            PendingPayment payment = new PendingPayment(amount, orderId, Sinks.one());
+            List<PendingPayment> full = null;
+            synchronized (this) {
+                pending.add(payment);
+                if (pending.size() >= maxSize) {
+                    full = pending;
+                    pending = new ArrayList<>();
+                } else if (pending.size() == 1) {
+                    List<PendingPayment> batch = pending;
+                    scheduler.schedule(() -> flush(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            if (full != null) {
+                send(full);
+            }
+            return payment.result().asMono();
+        });
+    }
+
+    private void flush(List<PendingPayment> batch) {
+        synchronized (this) {
+            // The batch may already have been sent because it filled up
+            if (pending != batch) {
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+        send(batch);
+    }
+
+    private void send(List<PendingPayment> batch) {
+        log.debug("Sending payment batch of {}", batch.size());
+        sender.apply(batch).subscribe(results -> {
+            for (int i = 0; i < batch.size(); i++) {
+                // A payment the answer left out may still have been processed
+                PaymentOutcome outcome = i < results.size() && results.get(i) != null
+                        ? results.get(i)
+                        : PaymentOutcome.UNKNOWN;
+                batch.get(i).result().tryEmitValue(outcome);
+            }
+        }, error -> batch.forEach(payment -> payment.result().tryEmitError(error)));
+    }
+}
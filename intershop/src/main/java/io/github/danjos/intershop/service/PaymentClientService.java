@@ -1,73 +1,144 @@
 package io.github.danjos.intershop.service;
 
+import io.github.danjos.intershop.config.PaymentClientConfig;
+import io.github.danjos.intershop.payment.model.PaymentRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
-import java.util.Map;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Calls the payment service through the {@code payment} circuit breaker. While the breaker is open,
+ * or a call fails or times out, the fallbacks answer immediately: a zero balance, which disables
+ * checkout, and an {@link PaymentOutcome#UNKNOWN} payment. The payment may have been debited before
+ * the call failed, so only an explicit answer from payment-service counts as a decline.
+ * <p>
+ * Both calls are idempotent (payments are keyed by their order id), so inside the breaker a slow
+ * attempt is hedged with a second one after {@code hedge-delay}, and transient failures are retried
+ * with backoff. The breaker's call timeout bounds all attempts together. The wire protocol is the
+ * configured {@link PaymentTransport}.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PaymentClientService {
+    private final PaymentTransport transport;
+    private final ReactiveCircuitBreaker circuitBreaker;
+    private final Duration balanceTtl;
+    private final Duration hedgeDelay;
+    private final Retry retry;
+    private final PaymentBatcher batcher;
+
+    private volatile Mono<Double> cachedBalance;
     
-    private final WebClient webClient;
-    
-    public PaymentClientService() {
-        this.webClient = WebClient.builder()
-                .baseUrl("http://localhost:8081")
-                .build();
+    public PaymentClientService(
+            PaymentTransport transport,
+            ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory,
+            @Value("${intershop.payment.balance-cache.ttl:3s}") Duration balanceTtl,
+            @Value("${intershop.payment.client.hedge-delay:250ms}") Duration hedgeDelay,
+            @Value("${intershop.payment.client.retry.max-retries:2}") int maxRetries,
+            @Value("${intershop.payment.client.retry.backoff:50ms}") Duration retryBackoff,
+            @Value("${intershop.payment.client.batch.enabled:false}") boolean batchEnabled,
+            @Value("${intershop.payment.client.batch.window:5ms}") Duration batchWindow,
+            @Value("${intershop.payment.client.batch.max-size:32}") int batchMaxSize) {
+        this.transport = transport;
+        this.circuitBreaker = circuitBreakerFactory.create(PaymentClientConfig.CIRCUIT_BREAKER_ID);
+        this.balanceTtl = balanceTtl;
+        this.hedgeDelay = hedgeDelay;
+        this.retry = Retry.backoff(maxRetries, retryBackoff)
+                .filter(transport::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+        this.batcher = batchEnabled
+                ? new PaymentBatcher(this::processBatch, batchWindow, batchMaxSize, Schedulers.parallel())
+                : null;
+        this.cachedBalance = newCachedBalance();
     }
     
+    /**
+     * Serves the balance from a short-lived cache. Concurrent callers share one in-flight request,
+     * and failures are not cached so the next caller retries (or is rejected by the open breaker).
+     */
     public Mono<Double> getBalance() {
-        return webClient.get()
-                .uri("/api/payment/balance")
-                .retrieve()
-                .bodyToMono(new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {})
-                .map(response -> {
-                    Object balance = response.get("balance");
-                    if (balance instanceof Number) {
-                        return ((Number) balance).doubleValue();
-                    }
-                    return 0.0;
-                })
-                .onErrorResume(WebClientResponseException.class, e -> {
-                    log.error("Error getting balance from payment service: {}", e.getMessage());
-                    return Mono.just(0.0);
-                })
+        return cachedBalance
                 .onErrorResume(e -> {
-                    log.error("Unexpected error getting balance: {}", e.getMessage());
+                    log.error("Error getting balance from payment service: {}", e.getMessage());
                     return Mono.just(0.0);
                 });
     }
-    
-    public Mono<Boolean> processPayment(Double amount, String orderId) {
-        Map<String, Object> request = Map.of(
-            "amount", amount,
-            "orderId", orderId,
-            "description", "Payment for order " + orderId
-        );
-        
-        return webClient.post()
-                .uri("/api/payment/process")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {})
-                .map(response -> {
-                    Object success = response.get("success");
-                    return success instanceof Boolean && (Boolean) success;
-                })
-                .onErrorResume(WebClientResponseException.BadRequest.class, e -> {
-                    log.warn("Payment failed for order {}: {}", orderId, e.getMessage());
-                    return Mono.just(false);
-                })
-                .onErrorResume(e -> {
-                    log.error("Error processing payment for order {}: {}", orderId, e.getMessage());
-                    return Mono.just(false);
-                });
+
+    public void evictBalance() {
+        cachedBalance = newCachedBalance();
+    }
+
+    private Mono<Double> newCachedBalance() {
+        Mono<Double> balance = circuitBreaker.run(hedgedWithRetries(transport.getBalance()), Mono::error);
+        if (balanceTtl.isZero() || balanceTtl.isNegative()) {
+            return balance;
+        }
+        return balance.cache(value -> balanceTtl, error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    /**
+     * Pays through the micro-batcher when batching is enabled, otherwise with one call per payment.
+     */
+    public Mono<PaymentOutcome> processPayment(Double amount, String orderId) {
+        Mono<PaymentOutcome> result = batcher != null
+                ? batcher.submit(amount, orderId)
+                : processSingle(amount, orderId);
+        // An unknown payment may have been debited as well
+        return result.doOnNext(outcome -> {
+            if (outcome != PaymentOutcome.DECLINED) {
+                evictBalance();
+            }
+        });
+    }
+
+    private Mono<PaymentOutcome> processSingle(Double amount, String orderId) {
+        Mono<PaymentOutcome> call = transport.processPayment(paymentRequest(amount, orderId)).map(PaymentOutcome::of);
+        return circuitBreaker.run(hedgedWithRetries(call), e -> {
+            log.error("Outcome of payment for order {} is unknown: {}", orderId, e.getMessage());
+            return Mono.just(PaymentOutcome.UNKNOWN);
+        });
+    }
+
+    /**
+     * One call for the whole batch. Retrying or hedging it is safe because payment-service
+     * deduplicates every payment by its order id.
+     */
+    private Mono<List<PaymentOutcome>> processBatch(List<PaymentBatcher.PendingPayment> payments) {
+        List<PaymentRequest> requests = payments.stream()
+                .map(payment -> paymentRequest(payment.amount(), payment.orderId()))
+                .toList();
+        return circuitBreaker.run(hedgedWithRetries(transport.processPaymentBatch(requests)), e -> {
+            log.error("Outcome of payment batch of {} is unknown: {}", payments.size(), e.getMessage());
+            return Mono.just(Collections.nCopies(payments.size(), PaymentOutcome.UNKNOWN));
+        });
+    }
+
+    private static PaymentRequest paymentRequest(double amount, String orderId) {
+        return new PaymentRequest()
+                .amount(amount)
+                .orderId(orderId)
+                .description("Payment for order " + orderId);
+    }
+
+    /**
+     * Races the call against a copy started after {@code hedge-delay} and takes the first answer; the
+     * loser is cancelled. A transient failure of either retries the pair.
+     */
+    private <T> Mono<T> hedgedWithRetries(Mono<T> call) {
+        Mono<T> attempt = hedgeDelay.isZero() || hedgeDelay.isNegative()
+                ? call
+                : Flux.merge(call, Mono.delay(hedgeDelay).then(call)).next();
+        return attempt.retryWhen(retry);
     }
 }
@@ -0,0 +1,31 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.payment.model.PaymentBatchResult;
+
+/**
+ * What intershop knows about a payment after asking payment-service. Only {@link #DECLINED} proves
+ * that nothing was charged; after a timeout, an open circuit or a transport error the payment is
+ * {@link #UNKNOWN} and may still have been debited.
+ */
+public enum PaymentOutcome {
+    APPROVED,
+    DECLINED,
+    UNKNOWN;
+
+    static PaymentOutcome of(boolean approved) {
+        return approved ? APPROVED : DECLINED;
+    }
+
+    /**
+     * A per-payment result of a batch: a 5xx, or no status at all, means the payment may or may not
+     * have gone through.
+     */
+    static PaymentOutcome of(PaymentBatchResult result) {
+        if (result == null || result.getStatus() == null || result.getStatus() >= 500) {
+            return UNKNOWN;
+        }
+        return of(result.getStatus() == 200
+                && result.getPayment() != null
+                && Boolean.TRUE.equals(result.getPayment().getSuccess()));
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.model.Order;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Settles orders still pending {@code min-age} after they were placed, whether checkout got an
+ * unknown payment outcome or never finished, by replaying the payment under the same idempotency
+ * key: payment-service answers with the original outcome if the first attempt reached it, and
+ * processes the payment otherwise. Approved orders proceed, declined ones are cancelled and still
+ * unknown ones are tried again on the next run. Every node may run this; the order transitions are
+ * conditional, so an order is settled once. A zero interval disables it.
+ */
+@Component
+@Slf4j
+public class PaymentSettlementJob {
+    private final OrderService orderService;
+    private final PaymentClientService paymentClientService;
+    private final Duration interval;
+    private final Duration minAge;
+
+    private Disposable schedule;
+
+    public PaymentSettlementJob(OrderService orderService,
+                                PaymentClientService paymentClientService,
+                                @Value("${intershop.payment.settlement.interval:30s}") Duration interval,
+                                @Value("${intershop.payment.settlement.min-age:1m}") Duration minAge) {
+        this.orderService = orderService;
+        this.paymentClientService = paymentClientService;
+        this.interval = interval;
+        this.minAge = minAge;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        schedule = Flux.interval(interval, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> settle()
+                        .onErrorResume(e -> {
+                            log.warn("Payment settlement failed: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public Mono<Void> settle() {
+        // Younger orders are most likely still in checkout
+        return orderService.getPaymentPendingOrders(LocalDateTime.now().minus(minAge))
+                .concatMap(this::settle)
+                .then();
+    }
+
+    private Mono<Void> settle(Order order) {
+        return paymentClientService.processPayment(order.getTotalSum(), order.getPaymentId())
+                .flatMap(outcome -> switch (outcome) {
+                    case APPROVED -> orderService.markPaid(order)
+                            .doOnNext(settled -> {
+                                if (settled) {
+                                    log.info("Settled payment of order {}", order.getId());
+                                }
+                            })
+                            .then();
+                    case DECLINED -> orderService.cancelOrder(order)
+                            .doOnNext(cancelled -> {
+                                if (cancelled) {
+                                    log.warn("Payment of order {} was declined, cancelled it", order.getId());
+                                }
+                            })
+                            .then();
+                    case UNKNOWN -> Mono.empty();
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+}
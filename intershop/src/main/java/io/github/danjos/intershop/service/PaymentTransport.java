@@ -0,0 +1,32 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.payment.model.PaymentRequest;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Wire protocol to payment-service, selected by {@code intershop.payment.transport}. Implementations
+ * only translate calls: the balance cache, circuit breaker, hedging, retries and batching live in
+ * {@link PaymentClientService}.
+ */
+public interface PaymentTransport {
+
+    Mono<Double> getBalance();
+
+    /**
+     * Completes with {@code false} for a declined payment and with an error when the service failed.
+     */
+    Mono<Boolean> processPayment(PaymentRequest request);
+
+    /**
+     * One outcome per payment, in request order; a payment the service answered with a server error
+     * is {@link PaymentOutcome#UNKNOWN}.
+     */
+    Mono<List<PaymentOutcome>> processPaymentBatch(List<PaymentRequest> requests);
+
+    /**
+     * Whether an error of this transport is worth retrying.
+     */
+    boolean isTransient(Throwable error);
+}
@@ -0,0 +1,99 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.exception.PaymentServiceUnavailableException;
+import io.github.danjos.intershop.payment.model.BalanceResponse;
+import io.github.danjos.intershop.payment.model.PaymentBatchRequest;
+import io.github.danjos.intershop.payment.model.PaymentBatchResponse;
+import io.github.danjos.intershop.payment.model.PaymentBatchResult;
+import io.github.danjos.intershop.payment.model.PaymentRequest;
+import io.rsocket.exceptions.ConnectionCloseException;
+import io.rsocket.exceptions.ConnectionErrorException;
+import io.rsocket.exceptions.RejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Request-response over one multiplexed RSocket connection, with the OpenAPI models encoded as CBOR.
+ * Each payment answers with a {@link PaymentBatchResult} carrying the HTTP-equivalent status.
+ */
+@Component
+@ConditionalOnProperty(name = "intershop.payment.transport", havingValue = "rsocket")
+@Slf4j
+public class RSocketPaymentTransport implements PaymentTransport {
+    private static final String BALANCE_ROUTE = "payment.balance";
+    private static final String PROCESS_ROUTE = "payment.process";
+    private static final String PROCESS_BATCH_ROUTE = "payment.process-batch";
+
+    private final RSocketRequester requester;
+    private final Duration responseTimeout;
+
+    public RSocketPaymentTransport(
+            RSocketRequester paymentRSocketRequester,
+            @Value("${intershop.payment.client.response-timeout:1s}") Duration responseTimeout) {
+        this.requester = paymentRSocketRequester;
+        this.responseTimeout = responseTimeout;
+    }
+
+    @Override
+    public Mono<Double> getBalance() {
+        return requester.route(BALANCE_ROUTE)
+                .retrieveMono(BalanceResponse.class)
+                .timeout(responseTimeout)
+                .map(response -> response.getBalance() != null ? response.getBalance() : 0.0);
+    }
+
+    @Override
+    public Mono<Boolean> processPayment(PaymentRequest request) {
+        return requester.route(PROCESS_ROUTE)
+                .data(request)
+                .retrieveMono(PaymentBatchResult.class)
+                .timeout(responseTimeout)
+                .flatMap(result -> {
+                    int status = result.getStatus() != null ? result.getStatus() : 500;
+                    if (status >= 500) {
+                        return Mono.error(new PaymentServiceUnavailableException(
+                                "Payment service answered " + status + " for order " + request.getOrderId()));
+                    }
+                    if (status != 200) {
+                        log.warn("Payment failed for order {}: status {}", request.getOrderId(), status);
+                    }
+                    return Mono.just(isSuccess(result));
+                });
+    }
+
+    @Override
+    public Mono<List<PaymentOutcome>> processPaymentBatch(List<PaymentRequest> requests) {
+        return requester.route(PROCESS_BATCH_ROUTE)
+                .data(new PaymentBatchRequest().payments(requests))
+                .retrieveMono(PaymentBatchResponse.class)
+                .timeout(responseTimeout)
+                .map(response -> response.getResults() == null
+                        ? List.of()
+                        : response.getResults().stream().map(PaymentOutcome::of).toList());
+    }
+
+    @Override
+    public boolean isTransient(Throwable e) {
+        return e instanceof PaymentServiceUnavailableException
+                || e instanceof ConnectionErrorException
+                || e instanceof ConnectionCloseException
+                || e instanceof RejectedException
+                || e instanceof IOException
+                || e instanceof TimeoutException;
+    }
+
+    private static boolean isSuccess(PaymentBatchResult result) {
+        return Integer.valueOf(200).equals(result.getStatus())
+                && result.getPayment() != null
+                && Boolean.TRUE.equals(result.getPayment().getSuccess());
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.exception.InsufficientStockException;
+import io.github.danjos.intershop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reserves stock for an order with conditional row updates, no table locks. Items configured
+ * as hot are reserved in {@link HotStockCounter} instead. Database reservations must run inside
+ * the order's transaction so that a shortage rolls back the rows already decremented.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+    private final ItemRepository itemRepository;
+    private final HotStockCounter hotStockCounter;
+
+    public Mono<Void> reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> hot = new HashMap<>();
+        Map<Long, Integer> regular = new HashMap<>();
+        split(quantities, hot, regular);
+
+        return itemRepository.reserveStock(regular)
+                .collectList()
+                .flatMap(shortItemIds -> shortItemIds.isEmpty()
+                        ? Mono.<Void>empty()
+                        : Mono.error(new InsufficientStockException(shortItemIds)))
+                .then(hotStockCounter.reserve(hot));
+    }
+
+    /**
+     * Gives back hot-item reservations, which are not covered by the database transaction.
+     */
+    public Mono<Void> releaseHot(Map<Long, Integer> quantities) {
+        Map<Long, Integer> hot = new HashMap<>();
+        split(quantities, hot, new HashMap<>());
+        return hotStockCounter.release(hot);
+    }
+
+    public Mono<Void> release(Map<Long, Integer> quantities) {
+        Map<Long, Integer> hot = new HashMap<>();
+        Map<Long, Integer> regular = new HashMap<>();
+        split(quantities, hot, regular);
+        return Mono.when(itemRepository.adjustStock(regular), hotStockCounter.release(hot));
+    }
+
+    private void split(Map<Long, Integer> quantities, Map<Long, Integer> hot, Map<Long, Integer> regular) {
+        quantities.forEach((itemId, quantity) -> {
+            if (quantity > 0) {
+                (hotStockCounter.isHot(itemId) ? hot : regular).put(itemId, quantity);
+            }
+        });
+    }
+}
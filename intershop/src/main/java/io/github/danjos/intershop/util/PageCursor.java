@@ -0,0 +1,95 @@
+package io.github.danjos.intershop.util;
+
+import io.github.danjos.intershop.model.Item;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Opaque keyset position for the listing queries: the sort, the page it leads to and
+ * the sort key of the last row already shown. Encoded as url-safe base64.
+ */
+@Value
+public class PageCursor {
+    public static final String SORT_TITLE = "ALPHA";
+    public static final String SORT_PRICE = "PRICE";
+    public static final String SORT_ID = "ID";
+
+    String sort;
+    int pageNumber;
+    long id;
+    String value;
+
+    public static PageCursor after(String sort, int pageNumber, Item last) {
+        String sortKey = sortKey(sort);
+        String value = switch (sortKey) {
+            case SORT_TITLE -> last.getTitle();
+            case SORT_PRICE -> BigDecimal.valueOf(last.getPrice()).toPlainString();
+            default -> "";
+        };
+        return new PageCursor(sortKey, pageNumber, last.getId(), value);
+    }
+
+    /**
+     * Parses a token sent by the client. Anything {@link #encode()} would not have produced for a
+     * listing page (an unknown sort, a page below 1, a value that does not parse for the sort)
+     * gives an empty result rather than an error.
+     */
+    public static Optional<PageCursor> decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4) {
+                return Optional.empty();
+            }
+            PageCursor cursor = new PageCursor(parts[0], Integer.parseInt(parts[1]), Long.parseLong(parts[2]), parts[3]);
+            return cursor.isValid() ? Optional.of(cursor) : Optional.empty();
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private boolean isValid() {
+        if (pageNumber < 1) {
+            return false;
+        }
+        return switch (sort) {
+            case SORT_TITLE -> true;
+            case SORT_PRICE -> isDecimal(value);
+            case SORT_ID -> value.isEmpty();
+            default -> false;
+        };
+    }
+
+    private static boolean isDecimal(String value) {
+        try {
+            new BigDecimal(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public static String sortKey(String sort) {
+        if (SORT_TITLE.equals(sort) || SORT_PRICE.equals(sort)) {
+            return sort;
+        }
+        return SORT_ID;
+    }
+
+    public boolean appliesTo(String sort) {
+        return this.sort.equals(sortKey(sort));
+    }
+
+    public BigDecimal priceValue() {
+        return new BigDecimal(value);
+    }
+
+    public String encode() {
+        String raw = sort + "|" + pageNumber + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -8,17 +8,24 @@ public class Paging {
     private int pageSize;
     private boolean hasNext;
     private boolean hasPrevious;
+    private String nextCursor;
 
 
     public Paging(int pageNumber, int pageSize, boolean hasNext, boolean hasPrevious) {
+        this(pageNumber, pageSize, hasNext, hasPrevious, null);
+    }
+
+    public Paging(int pageNumber, int pageSize, boolean hasNext, boolean hasPrevious, String nextCursor) {
         this.pageNumber = pageNumber;
         this.pageSize = pageSize;
         this.hasNext = hasNext;
         this.hasPrevious = hasPrevious;
+        this.nextCursor = nextCursor;
     }
 
 
     public int pageNumber() { return pageNumber; }
     public boolean hasNext() { return hasNext; }
     public boolean hasPrevious() { return hasPrevious; }
+    public String nextCursor() { return nextCursor; }
 }
\ No newline at end of file
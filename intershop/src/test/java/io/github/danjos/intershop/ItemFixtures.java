@@ -0,0 +1,55 @@
+package io.github.danjos.intershop;
+
+import io.github.danjos.intershop.model.Item;
+import io.github.danjos.intershop.repository.ItemRepository;
+import io.github.danjos.intershop.service.ItemService;
+
+import java.util.List;
+
+/**
+ * Shared test catalogue. Every call returns a fresh, unsaved item.
+ */
+public final class ItemFixtures {
+
+    private ItemFixtures() {
+    }
+
+    public static Item laptop() {
+        return item("Laptop", "High performance laptop", 999.99, 10);
+    }
+
+    public static Item smartphone() {
+        return item("Smartphone", "Latest smartphone model", 599.99, 15);
+    }
+
+    public static Item tablet() {
+        return item("Tablet", "Portable tablet device", 399.99, 8);
+    }
+
+    public static Item item(String title, String description, double price, int stock) {
+        Item item = new Item();
+        item.setTitle(title);
+        item.setDescription(description);
+        item.setPrice(price);
+        item.setStock(stock);
+        item.setImgPath("/images/" + title.toLowerCase().replace(' ', '-') + ".jpg");
+        return item;
+    }
+
+    public static Item withId(Long id, Item item) {
+        item.setId(id);
+        return item;
+    }
+
+    /**
+     * Replaces the whole catalogue with the given items and drops every cached item and search page.
+     * Returns the saved items, with ids, in the given order.
+     */
+    public static List<Item> replaceCatalogue(ItemRepository itemRepository, ItemService itemService, Item... items) {
+        return itemRepository.deleteAll()
+                .then(itemService.clearAllCache())
+                .thenMany(itemRepository.saveAll(List.of(items)))
+                .collectList()
+                .block();
+    }
+}
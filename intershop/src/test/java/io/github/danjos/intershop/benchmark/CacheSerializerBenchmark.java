@@ -0,0 +1,94 @@
+package io.github.danjos.intershop.benchmark;
+
+import io.github.danjos.intershop.cache.CompactRedisSerializer;
+import io.github.danjos.intershop.cache.ItemCodec;
+import io.github.danjos.intershop.cache.SearchResultCacheCodec;
+import io.github.danjos.intershop.dto.SearchResultCache;
+import io.github.danjos.intershop.model.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.danjos.intershop.ItemFixtures.item;
+import static io.github.danjos.intershop.ItemFixtures.withId;
+
+/**
+ * Encode/decode throughput of cached values for the JSON and compact binary serializers.
+ * Bytes per entry are printed once per trial.
+ * Run with {@code mvn -pl intershop -Pbenchmark verify -Dbenchmark=CacheSerializerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"json", "binary", "binary-deflate"})
+    private String codec;
+
+    private RedisSerializer<Object> serializer;
+    private Item item;
+    private SearchResultCache searchResult;
+    private byte[] itemBytes;
+    private byte[] searchResultBytes;
+
+    @Setup
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        serializer = switch (codec) {
+            case "binary" -> new CompactRedisSerializer(jsonSerializer, 0,
+                    List.of(new ItemCodec(), new SearchResultCacheCodec()));
+            case "binary-deflate" -> new CompactRedisSerializer(jsonSerializer, 64,
+                    List.of(new ItemCodec(), new SearchResultCacheCodec()));
+            default -> jsonSerializer;
+        };
+
+        item = withId(1L, item("Laptop", "High-performance laptop with latest specifications", 999.99, 10));
+        List<Long> itemIds = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            itemIds.add(id);
+        }
+        searchResult = new SearchResultCache(itemIds, 500, 0, 50);
+
+        itemBytes = serializer.serialize(item);
+        searchResultBytes = serializer.serialize(searchResult);
+        System.out.printf("%n[%s] item: %d bytes, search page of 50: %d bytes%n",
+                codec, itemBytes.length, searchResultBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeItem() {
+        return serializer.serialize(item);
+    }
+
+    @Benchmark
+    public Object decodeItem() {
+        return serializer.deserialize(itemBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeSearchResult() {
+        return serializer.serialize(searchResult);
+    }
+
+    @Benchmark
+    public Object decodeSearchResult() {
+        return serializer.deserialize(searchResultBytes);
+    }
+}
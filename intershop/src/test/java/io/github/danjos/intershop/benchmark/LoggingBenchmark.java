@@ -0,0 +1,135 @@
+package io.github.danjos.intershop.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.util.Duration;
+import io.github.danjos.intershop.logging.SamplingTurboFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request throughput under the logging each cart click produced before the {@code prod} profile
+ * (synchronous pattern appender, INFO cart and cache lines, DEBUG R2DBC queries) against the
+ * {@code prod} pipeline (sampling filter, async queue, JSON). Both write to a temp file; the
+ * number of lines that reached it is printed once per trial.
+ * Run with {@code mvn -pl intershop -Pbenchmark verify -Dbenchmark=LoggingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"baseline", "prod"})
+    private String config;
+
+    private final LongAdder requests = new LongAdder();
+    private LoggerContext context;
+    private Path file;
+    private Logger controllerLog;
+    private Logger serviceLog;
+    private Logger r2dbcLog;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        context.start();
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        if ("prod".equals(config)) {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.setLoggerPrefix("io.github.danjos.intershop");
+            sampling.setPermits(10);
+            sampling.setInterval(Duration.buildBySeconds(1));
+            sampling.start();
+            context.addTurboFilter(sampling);
+
+            JsonEncoder encoder = new JsonEncoder();
+            encoder.setContext(context);
+            encoder.start();
+
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(fileAppender(encoder));
+            async.start();
+            root.addAppender(async);
+        } else {
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setContext(context);
+            encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %t --- %-40.40logger{39} : %m%n");
+            encoder.start();
+            root.addAppender(fileAppender(encoder));
+            context.getLogger("io.r2dbc").setLevel(Level.DEBUG);
+        }
+
+        controllerLog = context.getLogger("io.github.danjos.intershop.controller.WebCartController");
+        serviceLog = context.getLogger("io.github.danjos.intershop.service.ItemService");
+        r2dbcLog = context.getLogger("io.r2dbc.h2.client.SessionClient");
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() throws IOException {
+        context.stop();
+        long lines;
+        try (var stream = Files.lines(file)) {
+            lines = stream.count();
+        }
+        System.out.printf("%n%s: %d requests, %d lines written%n", config, requests.sum(), lines);
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void cartClick() {
+        requests.increment();
+        long id = ThreadLocalRandom.current().nextLong(1024);
+        controllerLog.info("Handling cart action: {} for item: {}", "PLUS", id);
+        serviceLog.info("Cache hit for item: {}", id);
+        r2dbcLog.debug("Request: SELECT * FROM items WHERE id = $1");
+        r2dbcLog.debug("Response: 1 row");
+    }
+
+    private Appender<ILoggingEvent> fileAppender(Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(file.toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+}
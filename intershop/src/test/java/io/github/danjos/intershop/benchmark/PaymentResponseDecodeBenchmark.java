@@ -0,0 +1,106 @@
+package io.github.danjos.intershop.benchmark;
+
+import io.github.danjos.intershop.payment.model.BalanceResponse;
+import io.github.danjos.intershop.payment.model.PaymentResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Decoding payment-service responses the way the WebClient does: into a {@code Map<String, Object>}
+ * and reading fields with {@code instanceof} checks, or straight into the generated models.
+ * Bytes allocated per decode are printed once per trial.
+ * Run with {@code mvn -pl intershop -Pbenchmark verify -Dbenchmark=PaymentResponseDecodeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentResponseDecodeBenchmark {
+    private static final ResolvableType MAP_TYPE =
+            ResolvableType.forType(new ParameterizedTypeReference<Map<String, Object>>() {});
+    private static final byte[] BALANCE_JSON = """
+            {"balance":850.0,"currency":"RUB","timestamp":"2024-01-15T10:30:00Z"}"""
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYMENT_JSON = """
+            {"success":true,"transactionId":"txn-1a2b3c4d","newBalance":850.0,\
+            "message":"Платеж успешно обработан","timestamp":"2024-01-15T10:30:00Z"}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"map", "typed"})
+    private String target;
+
+    private final Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+
+    @Setup
+    public void setUp() {
+        long balanceBytes = allocatedPerCall(this::balance);
+        long paymentBytes = allocatedPerCall(this::payment);
+        System.out.printf("%n[%s] balance: %d bytes/decode, payment: %d bytes/decode%n",
+                target, balanceBytes, paymentBytes);
+    }
+
+    @Benchmark
+    public double balance() {
+        if ("typed".equals(target)) {
+            return decode(BALANCE_JSON, ResolvableType.forClass(BalanceResponse.class), BalanceResponse.class).getBalance();
+        }
+        Object balance = decodeMap(BALANCE_JSON).get("balance");
+        return balance instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
+    @Benchmark
+    public boolean payment() {
+        if ("typed".equals(target)) {
+            return Boolean.TRUE.equals(
+                    decode(PAYMENT_JSON, ResolvableType.forClass(PaymentResponse.class), PaymentResponse.class).getSuccess());
+        }
+        Object success = decodeMap(PAYMENT_JSON).get("success");
+        return success instanceof Boolean && (Boolean) success;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> decodeMap(byte[] json) {
+        return decode(json, MAP_TYPE, Map.class);
+    }
+
+    private <T> T decode(byte[] json, ResolvableType type, Class<T> javaType) {
+        Mono<Object> decoded = decoder.decodeToMono(
+                Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(json)), type, null, null);
+        return javaType.cast(decoded.block());
+    }
+
+    private static long allocatedPerCall(Supplier<?> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int calls = 20_000;
+        for (int i = 0; i < calls; i++) {
+            call.get();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < calls; i++) {
+            call.get();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / calls;
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.danjos.intershop.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CacheMetrics Tests")
+class CacheMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CacheMetrics cacheMetrics = new CacheMetrics(registry);
+
+    @Test
+    @DisplayName("Should count hits and misses per namespace")
+    void hitsAndMisses_ShouldBeTaggedByNamespace() {
+        cacheMetrics.item().hit();
+        cacheMetrics.item().hits(3);
+        cacheMetrics.item().misses(0);
+        cacheMetrics.search().miss();
+
+        assertThat(gets("item", "hit")).isEqualTo(4.0);
+        assertThat(gets("item", "miss")).isZero();
+        assertThat(gets("search", "hit")).isZero();
+        assertThat(gets("search", "miss")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should time Redis operations only when subscribed")
+    void redisGet_ShouldRecordOnSubscription() {
+        Mono<String> get = cacheMetrics.item().redisGet(Mono.just("value"));
+
+        assertThat(registry.get("intershop.cache.redis").tag("namespace", "item").tag("operation", "get")
+                .timer().count()).isZero();
+
+        StepVerifier.create(get).expectNext("value").verifyComplete();
+        StepVerifier.create(get).expectNext("value").verifyComplete();
+
+        assertThat(registry.get("intershop.cache.redis").tag("namespace", "item").tag("operation", "get")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should count a failed load and still time it")
+    void load_WithError_ShouldCountFailure() {
+        StepVerifier.create(cacheMetrics.search().load(Mono.error(new IllegalStateException("db down"))))
+                .verifyError(IllegalStateException.class);
+
+        assertThat(registry.get("intershop.cache.load.failures").tag("namespace", "search")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("intershop.cache.load").tag("namespace", "search")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("intershop.cache.load.failures").tag("namespace", "item")
+                .counter().count()).isZero();
+    }
+
+    private double gets(String namespace, String result) {
+        return registry.get("intershop.cache.gets")
+                .tag("namespace", namespace)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
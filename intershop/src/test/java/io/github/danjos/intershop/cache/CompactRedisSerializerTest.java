@@ -0,0 +1,120 @@
+package io.github.danjos.intershop.cache;
+
+import io.github.danjos.intershop.dto.SearchResultCache;
+import io.github.danjos.intershop.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.danjos.intershop.ItemFixtures.item;
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.withId;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CompactRedisSerializer Tests")
+class CompactRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(jsonSerializer, 256,
+            List.of(new ItemCodec(), new SearchResultCacheCodec()));
+
+    private Item laptop;
+    private SearchResultCache searchResult;
+
+    @BeforeEach
+    void setUp() {
+        laptop = withId(1L, laptop());
+
+        List<Long> itemIds = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            itemIds.add(id * 7);
+        }
+        searchResult = new SearchResultCache(itemIds, 57, 1, 20);
+    }
+
+    @Nested
+    @DisplayName("Round Trip Tests")
+    class RoundTripTests {
+
+        @Test
+        @DisplayName("Should restore item with all fields")
+        void serialize_Item_ShouldRoundTrip() {
+            Object result = serializer.deserialize(serializer.serialize(laptop));
+
+            assertThat(result).isEqualTo(laptop);
+        }
+
+        @Test
+        @DisplayName("Should restore item with null fields and negative stock")
+        void serialize_ItemWithNulls_ShouldRoundTrip() {
+            Item item = new Item();
+            item.setPrice(0.5);
+            item.setStock(-3);
+
+            Object result = serializer.deserialize(serializer.serialize(item));
+
+            assertThat(result).isEqualTo(item);
+        }
+
+        @Test
+        @DisplayName("Should restore search result")
+        void serialize_SearchResult_ShouldRoundTrip() {
+            Object result = serializer.deserialize(serializer.serialize(searchResult));
+
+            assertThat(result).isEqualTo(searchResult);
+        }
+
+        @Test
+        @DisplayName("Should compress and restore values above the threshold")
+        void serialize_LargeItem_ShouldCompressAndRoundTrip() {
+            Item item = withId(2L, item("Headphones", "Wireless noise-canceling headphones. ".repeat(20), 199.99, 10));
+
+            byte[] bytes = serializer.serialize(item);
+
+            assertThat(bytes[0] & 0x80).isNotZero();
+            assertThat(bytes.length).isLessThan(item.getDescription().length() / 2);
+            assertThat(serializer.deserialize(bytes)).isEqualTo(item);
+        }
+
+        @Test
+        @DisplayName("Should fall back to JSON for other types")
+        void serialize_String_ShouldUseJson() {
+            byte[] bytes = serializer.serialize("token");
+
+            assertThat(bytes).isEqualTo(jsonSerializer.serialize("token"));
+            assertThat(serializer.deserialize(bytes)).isEqualTo("token");
+        }
+
+        @Test
+        @DisplayName("Should read values written by the JSON serializer")
+        void deserialize_JsonValue_ShouldReadLegacyEntries() {
+            Object result = serializer.deserialize(jsonSerializer.serialize(laptop));
+
+            assertThat(result).isEqualTo(laptop);
+        }
+    }
+
+    @Nested
+    @DisplayName("Size Tests")
+    class SizeTests {
+
+        @Test
+        @DisplayName("Should encode item smaller than JSON")
+        void serialize_Item_ShouldBeSmallerThanJson() {
+            assertThat(serializer.serialize(laptop).length)
+                    .isLessThan(jsonSerializer.serialize(laptop).length / 2);
+        }
+
+        @Test
+        @DisplayName("Should encode search result smaller than JSON")
+        void serialize_SearchResult_ShouldBeSmallerThanJson() {
+            assertThat(serializer.serialize(searchResult).length)
+                    .isLessThan(jsonSerializer.serialize(searchResult).length / 4);
+        }
+    }
+}
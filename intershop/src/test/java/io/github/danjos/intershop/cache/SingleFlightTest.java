@@ -0,0 +1,73 @@
+package io.github.danjos.intershop.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SingleFlight Tests")
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    @DisplayName("Should run one loader for concurrent requests of the same key")
+    void load_ConcurrentRequests_ShouldShareOneLoader() {
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> loader = Mono.fromCallable(() -> "value-" + loads.incrementAndGet())
+                .delayElement(Duration.ofMillis(100));
+
+        StepVerifier.create(Flux.range(0, 50)
+                        .flatMap(i -> singleFlight.load("key", () -> loader))
+                        .collectList())
+                .assertNext(values -> assertThat(values).hasSize(50).containsOnly("value-1"))
+                .verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should load again once the previous load has completed")
+    void load_AfterCompletion_ShouldRunNewLoader() {
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> loader = Mono.fromCallable(() -> "value-" + loads.incrementAndGet());
+
+        StepVerifier.create(singleFlight.load("key", () -> loader)).expectNext("value-1").verifyComplete();
+        StepVerifier.create(singleFlight.load("key", () -> loader)).expectNext("value-2").verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should not coalesce loads of different keys")
+    void load_DifferentKeys_ShouldRunSeparateLoaders() {
+        AtomicInteger loads = new AtomicInteger();
+
+        StepVerifier.create(Flux.just("a", "b")
+                        .flatMap(key -> singleFlight.load(key, () -> Mono.fromCallable(() -> key + loads.incrementAndGet())
+                                .delayElement(Duration.ofMillis(50))))
+                        .collectList())
+                .assertNext(values -> assertThat(values).hasSize(2))
+                .verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should propagate errors and forget failed loads")
+    void load_WithError_ShouldPropagateAndAllowRetry() {
+        StepVerifier.create(singleFlight.load("key", () -> Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(singleFlight.inFlightCount()).isZero();
+        StepVerifier.create(singleFlight.load("key", () -> Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+}
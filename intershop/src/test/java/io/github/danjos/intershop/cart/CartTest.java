@@ -0,0 +1,145 @@
+package io.github.danjos.intershop.cart;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Cart Tests")
+class CartTest {
+
+    @Nested
+    @DisplayName("Mutation Tests")
+    class MutationTests {
+
+        @Test
+        @DisplayName("Should count increments and drop items at zero")
+        void incrementAndDecrement_ShouldTrackQuantities() {
+            Cart cart = new Cart();
+
+            assertThat(cart.increment(1L)).isEqualTo(1);
+            assertThat(cart.increment(1L)).isEqualTo(2);
+            assertThat(cart.decrement(1L)).isEqualTo(1);
+            assertThat(cart.decrement(1L)).isZero();
+            assertThat(cart.decrement(1L)).isZero();
+
+            assertThat(cart.isEmpty()).isTrue();
+            assertThat(cart.quantity(1L)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should remove an item and return its quantity")
+        void remove_ShouldReturnPreviousQuantity() {
+            Cart cart = Cart.of(Map.of(1L, 3, 2L, 1));
+
+            assertThat(cart.remove(1L)).isEqualTo(3);
+            assertThat(cart.remove(1L)).isZero();
+            assertThat(cart.toMap()).isEqualTo(Map.of(2L, 1));
+        }
+
+        @Test
+        @DisplayName("Should behave like a map under random growth and removal")
+        void randomOperations_ShouldMatchReferenceMap() {
+            Random random = new Random(42);
+            Cart cart = new Cart();
+            Map<Long, Integer> expected = new HashMap<>();
+
+            for (int i = 0; i < 50_000; i++) {
+                long itemId = random.nextInt(300) - 100;
+                switch (random.nextInt(5)) {
+                    case 0, 1 -> {
+                        cart.increment(itemId);
+                        expected.merge(itemId, 1, Integer::sum);
+                    }
+                    case 2, 3 -> {
+                        cart.decrement(itemId);
+                        expected.computeIfPresent(itemId, (id, quantity) -> quantity > 1 ? quantity - 1 : null);
+                    }
+                    default -> {
+                        cart.remove(itemId);
+                        expected.remove(itemId);
+                    }
+                }
+            }
+
+            assertThat(cart.toMap()).isEqualTo(expected);
+            assertThat(cart.size()).isEqualTo(expected.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency Tests")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Should not lose concurrent increments")
+        void increment_FromManyThreads_ShouldBeAtomic() {
+            Cart cart = new Cart();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        for (int i = 0; i < 10_000; i++) {
+                            cart.increment(i % 10);
+                        }
+                    }, executor));
+                }
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            } finally {
+                executor.shutdown();
+            }
+
+            for (long itemId = 0; itemId < 10; itemId++) {
+                assertThat(cart.quantity(itemId)).isEqualTo(8_000);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Serialization Tests")
+    class SerializationTests {
+
+        @Test
+        @DisplayName("Should round-trip and stay smaller than a serialized HashMap")
+        void serialize_ShouldRoundTripCompactly() throws Exception {
+            Map<Long, Integer> quantities = new HashMap<>();
+            for (long itemId = 1; itemId <= 50; itemId++) {
+                quantities.put(itemId, (int) itemId);
+            }
+            Cart cart = Cart.of(quantities);
+
+            byte[] cartBytes = serialize(cart);
+            Cart restored;
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(cartBytes))) {
+                restored = (Cart) in.readObject();
+            }
+
+            assertThat(restored).isEqualTo(cart);
+            assertThat(restored.increment(51L)).isEqualTo(1);
+            assertThat(cartBytes.length).isLessThan(serialize(new HashMap<>(quantities)).length);
+        }
+
+        private byte[] serialize(Object value) throws Exception {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
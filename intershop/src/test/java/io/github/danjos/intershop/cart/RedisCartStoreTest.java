@@ -0,0 +1,85 @@
+package io.github.danjos.intershop.cart;
+
+import io.github.danjos.intershop.AbstractTestContainerTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.web.server.WebSession;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("RedisCartStore Tests")
+class RedisCartStoreTest extends AbstractTestContainerTest {
+
+    @Autowired
+    private ReactiveStringRedisTemplate stringRedisTemplate;
+
+    private RedisCartStore cartStore;
+    private WebSession session;
+
+    @BeforeEach
+    void setUp() {
+        cartStore = new RedisCartStore(stringRedisTemplate);
+        session = mock(WebSession.class);
+        when(session.getId()).thenReturn(UUID.randomUUID().toString());
+        when(session.getMaxIdleTime()).thenReturn(Duration.ofMinutes(30));
+    }
+
+    @Test
+    @DisplayName("Should keep quantities in a hash that expires with the session")
+    void increment_ShouldStoreQuantitiesInHash() {
+        cartStore.increment(session, 1L)
+                .then(cartStore.increment(session, 1L))
+                .then(cartStore.increment(session, 2L))
+                .block();
+
+        StepVerifier.create(cartStore.getCart(session))
+                .assertNext(cart -> assertThat(cart.toMap()).isEqualTo(Map.of(1L, 2, 2L, 1)))
+                .verifyComplete();
+        StepVerifier.create(stringRedisTemplate.getExpire("cart:" + session.getId()))
+                .assertNext(ttl -> assertThat(ttl).isPositive())
+                .verifyComplete();
+        verify(session).start();
+    }
+
+    @Test
+    @DisplayName("Should drop an item once its quantity reaches zero")
+    void decrement_ToZero_ShouldRemoveItem() {
+        cartStore.increment(session, 1L).block();
+
+        cartStore.decrement(session, 1L)
+                .then(cartStore.decrement(session, 1L))
+                .then(cartStore.decrement(session, 3L))
+                .block();
+
+        StepVerifier.create(cartStore.getCart(session))
+                .assertNext(cart -> assertThat(cart.isEmpty()).isTrue())
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should remove single items and whole carts")
+    void removeAndClear_ShouldDeleteEntries() {
+        cartStore.increment(session, 1L).then(cartStore.increment(session, 2L)).block();
+
+        cartStore.remove(session, 1L).block();
+        StepVerifier.create(cartStore.getCart(session))
+                .assertNext(cart -> assertThat(cart.itemIds()).containsOnly(2L))
+                .verifyComplete();
+
+        cartStore.clear(session).block();
+        StepVerifier.create(stringRedisTemplate.hasKey("cart:" + session.getId()))
+                .expectNext(false)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.danjos.intershop.cart;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.WebSession;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SessionCartStore Tests")
+class SessionCartStoreTest {
+
+    @Mock
+    private WebSession session;
+
+    private final SessionCartStore cartStore = new SessionCartStore();
+
+    private Map<String, Object> sessionAttributes;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        cart = Cart.of(Map.of(1L, 2, 2L, 1));
+        sessionAttributes = new ConcurrentHashMap<>();
+        sessionAttributes.put("cart", cart);
+
+        when(session.getAttributes()).thenReturn(sessionAttributes);
+    }
+
+    @Nested
+    @DisplayName("Increment Tests")
+    class IncrementTests {
+
+        @Test
+        @DisplayName("Should add new item to cart")
+        void increment_NewItem_ShouldAddToCart() {
+            StepVerifier.create(cartStore.increment(session, 3L))
+                    .verifyComplete();
+
+            assertThat(cart.quantity(3L)).isEqualTo(1);
+            assertThat(sessionAttributes.get("cart")).isSameAs(cart);
+        }
+
+        @Test
+        @DisplayName("Should increment quantity for existing item")
+        void increment_ExistingItem_ShouldIncrementQuantity() {
+            StepVerifier.create(cartStore.increment(session, 1L))
+                    .verifyComplete();
+
+            assertThat(cart.quantity(1L)).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should create new cart when session has none")
+        void increment_NoCart_ShouldStoreNewCart() {
+            sessionAttributes.clear();
+
+            StepVerifier.create(cartStore.increment(session, 1L))
+                    .verifyComplete();
+
+            assertThat(sessionAttributes.get("cart")).isEqualTo(Cart.of(Map.of(1L, 1)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Decrement Tests")
+    class DecrementTests {
+
+        @Test
+        @DisplayName("Should decrement quantity when quantity greater than one")
+        void decrement_QuantityGreaterThanOne_ShouldDecrementQuantity() {
+            StepVerifier.create(cartStore.decrement(session, 1L))
+                    .verifyComplete();
+
+            assertThat(cart.quantity(1L)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should remove item when quantity equals one")
+        void decrement_QuantityEqualsOne_ShouldRemoveItem() {
+            StepVerifier.create(cartStore.decrement(session, 2L))
+                    .verifyComplete();
+
+            assertThat(cart.itemIds()).containsOnly(1L);
+        }
+
+        @Test
+        @DisplayName("Should handle non-existent item")
+        void decrement_NonExistentItem_ShouldHandleGracefully() {
+            StepVerifier.create(cartStore.decrement(session, 999L))
+                    .verifyComplete();
+
+            assertThat(cart.size()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Remove And Clear Tests")
+    class RemoveAndClearTests {
+
+        @Test
+        @DisplayName("Should delete item from cart")
+        void remove_ExistingItem_ShouldDeleteItem() {
+            StepVerifier.create(cartStore.remove(session, 1L))
+                    .verifyComplete();
+
+            assertThat(cart.quantity(1L)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should drop the cart attribute")
+        void clear_ShouldRemoveAttribute() {
+            StepVerifier.create(cartStore.clear(session))
+                    .verifyComplete();
+
+            assertThat(sessionAttributes).doesNotContainKey("cart");
+        }
+    }
+
+    @Nested
+    @DisplayName("Get Cart Tests")
+    class GetCartTests {
+
+        @Test
+        @DisplayName("Should return a copy of the existing cart")
+        void getCart_ExistingCart_ShouldReturnCopy() {
+            StepVerifier.create(cartStore.getCart(session))
+                    .assertNext(result -> assertThat(result).isEqualTo(cart).isNotSameAs(cart))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should return an empty cart without touching the session")
+        void getCart_NoCart_ShouldReturnEmptyCart() {
+            sessionAttributes.clear();
+
+            StepVerifier.create(cartStore.getCart(session))
+                    .assertNext(result -> assertThat(result.isEmpty()).isTrue())
+                    .verifyComplete();
+
+            assertThat(sessionAttributes).isEmpty();
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package io.github.danjos.intershop.controller;
 
+import io.github.danjos.intershop.cart.Cart;
 import io.github.danjos.intershop.dto.CartItemDto;
+import io.github.danjos.intershop.dto.CartSnapshot;
+import io.github.danjos.intershop.exception.InsufficientStockException;
 import io.github.danjos.intershop.model.Item;
 import io.github.danjos.intershop.model.Order;
+import io.github.danjos.intershop.model.OrderItem;
 import io.github.danjos.intershop.model.User;
 import io.github.danjos.intershop.service.CartService;
 import io.github.danjos.intershop.service.OrderService;
 import io.github.danjos.intershop.service.UserService;
 import io.github.danjos.intershop.service.PaymentClientService;
+import io.github.danjos.intershop.service.PaymentOutcome;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -16,16 +21,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.reactive.result.view.RedirectView;
 import org.springframework.web.reactive.result.view.Rendering;
 import org.springframework.web.server.WebSession;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.withId;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -58,12 +66,7 @@ class WebCartControllerTest {
 
     @BeforeEach
     void setUp() {
-        laptop = new Item();
-        laptop.setId(1L);
-        laptop.setTitle("Laptop");
-        laptop.setDescription("High performance laptop");
-        laptop.setPrice(999.99);
-        laptop.setStock(10);
+        laptop = withId(1L, laptop());
 
         user = new User();
         user.setId(1L);
@@ -73,11 +76,44 @@ class WebCartControllerTest {
         order.setId(1L);
         order.setUserId(user.getId());
         order.setStatus("PROCESSING");
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItemId(laptop.getId());
+        orderItem.setQuantity(2);
+        orderItem.setPrice(laptop.getPrice());
+        order.setItems(List.of(orderItem));
 
         CartItemDto cartItem = new CartItemDto(laptop, 2);
         cartItems = Arrays.asList(cartItem);
     }
 
+    @Nested
+    @DisplayName("Show Cart Tests")
+    class ShowCartTests {
+
+        @Test
+        @DisplayName("Should render the cart from a single snapshot")
+        void showCart_ShouldUseOneSnapshot() {
+            CartSnapshot snapshot = snapshot(Cart.of(Map.of(1L, 2)), 1999.98).withBalance(1500.0);
+            when(cartService.getCartSnapshotWithBalance(webSession)).thenReturn(Mono.just(snapshot));
+            when(userService.getCurrentUser()).thenReturn(Mono.just(user));
+
+            StepVerifier.create(webCartController.showCart(webSession))
+                    .assertNext(rendering -> {
+                        assertThat(rendering.view()).isEqualTo("cart");
+                        assertThat(rendering.modelAttributes())
+                                .containsEntry("items", cartItems)
+                                .containsEntry("total", 1999.98)
+                                .containsEntry("empty", false)
+                                .containsEntry("checkoutEnabled", false)
+                                .containsEntry("balance", 1500.0);
+                    })
+                    .verifyComplete();
+
+            verify(cartService, times(1)).getCartSnapshotWithBalance(webSession);
+            verifyNoInteractions(paymentClientService);
+        }
+    }
+
     @Nested
     @DisplayName("Handle Cart Action Tests")
     class HandleCartActionTests {
@@ -118,14 +154,14 @@ class WebCartControllerTest {
         @Test
         @DisplayName("Should create order with valid cart")
         void createOrder_WithValidCart_ShouldCreateOrder() {
-            Map<Long, Integer> cart = new HashMap<>();
-            cart.put(1L, 2);
+            Cart cart = Cart.of(Map.of(1L, 2));
             
-            when(cartService.getCart(any(WebSession.class))).thenReturn(cart);
-            when(cartService.getCartTotalReactive(any(WebSession.class))).thenReturn(Mono.just(999.99));
+            when(cartService.getCartSnapshot(any(WebSession.class))).thenReturn(Mono.just(snapshot(cart, 999.99)));
             when(userService.getCurrentUser()).thenReturn(Mono.just(user));
-            when(paymentClientService.processPayment(anyDouble(), anyString())).thenReturn(Mono.just(true));
+            when(paymentClientService.processPayment(anyDouble(), anyString())).thenReturn(Mono.just(PaymentOutcome.APPROVED));
+            when(cartService.clearCart(any(WebSession.class))).thenReturn(Mono.empty());
             when(orderService.createOrderFromCart(any(), any())).thenReturn(Mono.just(order));
+            when(orderService.markPaid(order)).thenReturn(Mono.just(true));
 
             Mono<Rendering> result = webCartController.createOrder(webSession);
 
@@ -133,19 +169,22 @@ class WebCartControllerTest {
                     .expectNextMatches(rendering -> rendering != null)
                     .verifyComplete();
 
-            verify(orderService).createOrderFromCart(eq(cart), eq(user));
+            verify(orderService).createOrderFromCart(eq(cart.toMap()), eq(user));
+            verify(orderService).markPaid(order);
+            verify(cartService).clearCart(webSession);
         }
 
         @Test
         @DisplayName("Should handle empty cart")
         void createOrder_WithEmptyCart_ShouldCreateOrder() {
-            Map<Long, Integer> emptyCart = new HashMap<>();
+            Cart emptyCart = new Cart();
             
-            when(cartService.getCart(any(WebSession.class))).thenReturn(emptyCart);
-            when(cartService.getCartTotalReactive(any(WebSession.class))).thenReturn(Mono.just(0.0));
+            when(cartService.getCartSnapshot(any(WebSession.class))).thenReturn(Mono.just(snapshot(emptyCart, 0.0)));
             when(userService.getCurrentUser()).thenReturn(Mono.just(user));
-            when(paymentClientService.processPayment(anyDouble(), anyString())).thenReturn(Mono.just(true));
+            when(paymentClientService.processPayment(anyDouble(), anyString())).thenReturn(Mono.just(PaymentOutcome.APPROVED));
+            when(cartService.clearCart(any(WebSession.class))).thenReturn(Mono.empty());
             when(orderService.createOrderFromCart(any(), any())).thenReturn(Mono.just(order));
+            when(orderService.markPaid(order)).thenReturn(Mono.just(true));
 
             Mono<Rendering> result = webCartController.createOrder(webSession);
 
@@ -154,7 +193,69 @@ class WebCartControllerTest {
                     .verifyComplete();
 
             // The controller processes empty carts too, so we verify it was called
-            verify(orderService).createOrderFromCart(eq(emptyCart), eq(user));
+            verify(orderService).createOrderFromCart(eq(Map.of()), eq(user));
+        }
+
+        @Test
+        @DisplayName("Should cancel the order when payment is declined")
+        void createOrder_WhenPaymentDeclined_ShouldCancelOrder() {
+            Cart cart = Cart.of(Map.of(1L, 2));
+
+            when(cartService.getCartSnapshot(any(WebSession.class))).thenReturn(Mono.just(snapshot(cart, 1999.98)));
+            when(userService.getCurrentUser()).thenReturn(Mono.just(user));
+            when(orderService.createOrderFromCart(any(), any())).thenReturn(Mono.just(order));
+            when(paymentClientService.processPayment(1999.98, "order-1")).thenReturn(Mono.just(PaymentOutcome.DECLINED));
+            when(orderService.cancelOrder(order)).thenReturn(Mono.just(true));
+
+            StepVerifier.create(webCartController.createOrder(webSession))
+                    .expectNextMatches(rendering -> redirectsTo(rendering, "/cart/items?paymentFailed=true"))
+                    .verifyComplete();
+
+            verify(orderService).cancelOrder(order);
+        }
+
+        @Test
+        @DisplayName("Should keep the order pending when the payment outcome is unknown")
+        void createOrder_WhenPaymentOutcomeUnknown_ShouldKeepOrderPending() {
+            Cart cart = Cart.of(Map.of(1L, 2));
+
+            when(cartService.getCartSnapshot(any(WebSession.class))).thenReturn(Mono.just(snapshot(cart, 1999.98)));
+            when(userService.getCurrentUser()).thenReturn(Mono.just(user));
+            when(orderService.createOrderFromCart(any(), any())).thenReturn(Mono.just(order));
+            when(paymentClientService.processPayment(1999.98, "order-1")).thenReturn(Mono.just(PaymentOutcome.UNKNOWN));
+            when(cartService.clearCart(webSession)).thenReturn(Mono.empty());
+
+            StepVerifier.create(webCartController.createOrder(webSession))
+                    .expectNextMatches(rendering -> redirectsTo(rendering, "/orders/1"))
+                    .verifyComplete();
+
+            verify(orderService, never()).cancelOrder(any());
+            verify(orderService, never()).markPaid(any());
+        }
+
+        @Test
+        @DisplayName("Should not charge when stock is short")
+        void createOrder_WithInsufficientStock_ShouldNotCharge() {
+            Cart cart = Cart.of(Map.of(1L, 20));
+
+            when(cartService.getCartSnapshot(any(WebSession.class))).thenReturn(Mono.just(snapshot(cart, 19999.8)));
+            when(userService.getCurrentUser()).thenReturn(Mono.just(user));
+            when(orderService.createOrderFromCart(any(), any()))
+                    .thenReturn(Mono.error(new InsufficientStockException(List.of(1L))));
+
+            StepVerifier.create(webCartController.createOrder(webSession))
+                    .expectNextMatches(rendering -> redirectsTo(rendering, "/cart/items?outOfStock=true"))
+                    .verifyComplete();
+
+            verify(paymentClientService, never()).processPayment(anyDouble(), anyString());
         }
     }
-} 
\ No newline at end of file
+
+    private CartSnapshot snapshot(Cart cart, double total) {
+        return new CartSnapshot(cart, cart.isEmpty() ? List.of() : cartItems, total, null);
+    }
+
+    private static boolean redirectsTo(Rendering rendering, String url) {
+        return rendering.view() instanceof RedirectView redirectView && url.equals(redirectView.getUrl());
+    }
+}
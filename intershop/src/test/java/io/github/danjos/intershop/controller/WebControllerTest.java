@@ -1,5 +1,6 @@
 package io.github.danjos.intershop.controller;
 
+import io.github.danjos.intershop.cart.Cart;
 import io.github.danjos.intershop.model.Item;
 import io.github.danjos.intershop.service.CartService;
 import io.github.danjos.intershop.service.ItemService;
@@ -16,10 +17,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.smartphone;
+import static io.github.danjos.intershop.ItemFixtures.withId;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 
@@ -39,29 +42,16 @@ class WebControllerTest {
     private Item laptop;
     private Item smartphone;
     private Page<Item> itemPage;
-    private Map<Long, Integer> cart;
+    private Cart cart;
 
     @BeforeEach
     void setUp() {
-        laptop = new Item();
-        laptop.setId(1L);
-        laptop.setTitle("Laptop");
-        laptop.setDescription("High performance laptop");
-        laptop.setPrice(999.99);
-        laptop.setStock(10);
-
-        smartphone = new Item();
-        smartphone.setId(2L);
-        smartphone.setTitle("Smartphone");
-        smartphone.setDescription("Latest smartphone");
-        smartphone.setPrice(599.99);
-        smartphone.setStock(15);
+        laptop = withId(1L, laptop());
+        smartphone = withId(2L, smartphone());
 
         itemPage = new PageImpl<>(List.of(laptop, smartphone), PageRequest.of(0, 10), 2);
         
-        cart = new HashMap<>();
-        cart.put(1L, 2);
-        cart.put(2L, 1);
+        cart = Cart.of(Map.of(1L, 2, 2L, 1));
     }
 
     @Nested
@@ -71,9 +61,9 @@ class WebControllerTest {
         @Test
         @DisplayName("Should return main page with items")
         void showMainPage_WithDefaultParameters_ShouldReturnMainPage() {
-            when(itemService.searchItems("", 1, 10, "NO"))
+            when(itemService.searchItems("", 1, 10, "NO", null))
                     .thenReturn(Mono.just(itemPage));
-            when(cartService.getCart(any())).thenReturn(cart);
+            when(cartService.getCart(any())).thenReturn(Mono.just(cart));
 
             webTestClient.get()
                     .uri("/")
@@ -90,9 +80,9 @@ class WebControllerTest {
         @DisplayName("Should return filtered results with search query")
         void showMainPage_WithSearchQuery_ShouldReturnFilteredResults() {
             Page<Item> filteredPage = new PageImpl<>(List.of(laptop), PageRequest.of(0, 10), 1);
-            when(itemService.searchItems("laptop", 1, 10, "NO"))
+            when(itemService.searchItems("laptop", 1, 10, "NO", null))
                     .thenReturn(Mono.just(filteredPage));
-            when(cartService.getCart(any())).thenReturn(cart);
+            when(cartService.getCart(any())).thenReturn(Mono.just(cart));
 
             webTestClient.get()
                     .uri(uriBuilder -> uriBuilder.path("/")
@@ -105,9 +95,9 @@ class WebControllerTest {
         @Test
         @DisplayName("Should return sorted results with sorting parameter")
         void showMainPage_WithSorting_ShouldReturnSortedResults() {
-            when(itemService.searchItems("", 1, 10, "ALPHA"))
+            when(itemService.searchItems("", 1, 10, "ALPHA", null))
                     .thenReturn(Mono.just(itemPage));
-            when(cartService.getCart(any())).thenReturn(cart);
+            when(cartService.getCart(any())).thenReturn(Mono.just(cart));
 
             webTestClient.get()
                     .uri(uriBuilder -> uriBuilder.path("/")
@@ -120,9 +110,9 @@ class WebControllerTest {
         @Test
         @DisplayName("Should return correct page with pagination")
         void showMainPage_WithPagination_ShouldReturnCorrectPage() {
-            when(itemService.searchItems("", 2, 10, "NO"))
+            when(itemService.searchItems("", 2, 10, "NO", null))
                     .thenReturn(Mono.just(itemPage));
-            when(cartService.getCart(any())).thenReturn(cart);
+            when(cartService.getCart(any())).thenReturn(Mono.just(cart));
 
             webTestClient.get()
                     .uri(uriBuilder -> uriBuilder.path("/")
@@ -136,9 +126,9 @@ class WebControllerTest {
         @DisplayName("Should handle empty search results")
         void showMainPage_WithEmptySearchResults_ShouldReturnEmptyPage() {
             Page<Item> emptyPage = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
-            when(itemService.searchItems("nonexistent", 1, 10, "NO"))
+            when(itemService.searchItems("nonexistent", 1, 10, "NO", null))
                     .thenReturn(Mono.just(emptyPage));
-            when(cartService.getCart(any())).thenReturn(new HashMap<>());
+            when(cartService.getCart(any())).thenReturn(Mono.just(new Cart()));
 
             webTestClient.get()
                     .uri(uriBuilder -> uriBuilder.path("/")
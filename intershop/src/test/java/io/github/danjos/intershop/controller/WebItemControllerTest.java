@@ -1,5 +1,6 @@
 package io.github.danjos.intershop.controller;
 
+import io.github.danjos.intershop.cart.Cart;
 import io.github.danjos.intershop.dto.CartItemDto;
 import io.github.danjos.intershop.model.Item;
 import io.github.danjos.intershop.service.CartService;
@@ -14,9 +15,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
 import java.util.Map;
 
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.withId;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 
@@ -34,19 +36,13 @@ class WebItemControllerTest {
     private CartService cartService;
 
     private Item laptop;
-    private Map<Long, Integer> cart;
+    private Cart cart;
 
     @BeforeEach
     void setUp() {
-        laptop = new Item();
-        laptop.setId(1L);
-        laptop.setTitle("Laptop");
-        laptop.setDescription("High performance laptop");
-        laptop.setPrice(999.99);
-        laptop.setStock(10);
-
-        cart = new HashMap<>();
-        cart.put(1L, 2);
+        laptop = withId(1L, laptop());
+
+        cart = Cart.of(Map.of(1L, 2));
     }
 
     @Nested
@@ -57,7 +53,7 @@ class WebItemControllerTest {
         @DisplayName("Should return item page with valid ID")
         void showItem_WithValidId_ShouldReturnItemPage() {
             when(itemService.getItemById(1L)).thenReturn(Mono.just(laptop));
-            when(cartService.getCart(any())).thenReturn(cart);
+            when(cartService.getCart(any())).thenReturn(Mono.just(cart));
 
             webTestClient.get()
                     .uri("/items/1")
@@ -0,0 +1,65 @@
+package io.github.danjos.intershop.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SamplingTurboFilter Tests")
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.DEBUG);
+        logger = context.getLogger("io.github.danjos.intershop.service.CartService");
+        filter.setContext(context);
+        filter.setLoggerPrefix("io.github.danjos.intershop");
+        filter.setPermits(3);
+        filter.setInterval(Duration.buildByMinutes(10));
+        filter.start();
+    }
+
+    @Test
+    @DisplayName("Should deny a call site once its permits are used up")
+    void decide_OverPermits_ShouldDeny() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(decide(logger, Level.INFO, "Cart updated: {}")).isEqualTo(FilterReply.NEUTRAL);
+        }
+        assertThat(decide(logger, Level.INFO, "Cart updated: {}")).isEqualTo(FilterReply.DENY);
+        assertThat(decide(logger, Level.INFO, "Cart cleared")).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    @DisplayName("Should always pass warnings and loggers outside the prefix")
+    void decide_WarningsAndForeignLoggers_ShouldPass() {
+        Logger foreign = context.getLogger("io.r2dbc.h2.client.SessionClient");
+        for (int i = 0; i < 10; i++) {
+            assertThat(decide(logger, Level.WARN, "Payment failed: {}")).isEqualTo(FilterReply.NEUTRAL);
+            assertThat(decide(foreign, Level.INFO, "Request: {}")).isEqualTo(FilterReply.NEUTRAL);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not spend permits on disabled levels")
+    void decide_DisabledLevel_ShouldNotCount() {
+        logger.setLevel(Level.INFO);
+        for (int i = 0; i < 10; i++) {
+            decide(logger, Level.DEBUG, "Cart updated: {}");
+        }
+        assertThat(decide(logger, Level.INFO, "Cart updated: {}")).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    private FilterReply decide(Logger target, Level level, String format) {
+        return filter.decide(null, target, level, format, new Object[] {1L}, null);
+    }
+}
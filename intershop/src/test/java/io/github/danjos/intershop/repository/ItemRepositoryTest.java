@@ -8,13 +8,20 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.test.context.ActiveProfiles;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
+import static io.github.danjos.intershop.ItemFixtures.item;
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.smartphone;
+import static io.github.danjos.intershop.ItemFixtures.tablet;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataR2dbcTest
@@ -25,32 +32,18 @@ class ItemRepositoryTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private DatabaseClient databaseClient;
+
     private Item laptop;
     private Item smartphone;
     private Item tablet;
 
     @BeforeEach
     void setUp() {
-        laptop = new Item();
-        laptop.setTitle("Laptop");
-        laptop.setDescription("High performance laptop");
-        laptop.setPrice(999.99);
-        laptop.setStock(10);
-        laptop.setImgPath("/images/laptop.jpg");
-
-        smartphone = new Item();
-        smartphone.setTitle("Smartphone");
-        smartphone.setDescription("Latest smartphone model");
-        smartphone.setPrice(599.99);
-        smartphone.setStock(15);
-        smartphone.setImgPath("/images/smartphone.jpg");
-
-        tablet = new Item();
-        tablet.setTitle("Tablet");
-        tablet.setDescription("Portable tablet device");
-        tablet.setPrice(399.99);
-        tablet.setStock(8);
-        tablet.setImgPath("/images/tablet.jpg");
+        laptop = laptop();
+        smartphone = smartphone();
+        tablet = tablet();
 
         // Clear and save test data
         itemRepository.deleteAll()
@@ -379,6 +372,95 @@ class ItemRepositoryTest {
         }
     }
 
+    @Nested
+    @DisplayName("Keyset Pagination Tests")
+    class KeysetPaginationTests {
+
+        @Test
+        @DisplayName("Should return items after the given title and id")
+        void findPageAfterTitle_ShouldSeekPastCursor() {
+            StepVerifier.create(itemRepository.findPageAfterTitle("Laptop", laptop.getId(), 10))
+                    .assertNext(item -> assertThat(item.getTitle()).isEqualTo("Smartphone"))
+                    .assertNext(item -> assertThat(item.getTitle()).isEqualTo("Tablet"))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should break title ties by id")
+        void findPageAfterTitle_WithDuplicateTitles_ShouldUseIdAsTieBreaker() {
+            Item secondLaptop = itemRepository.save(item("Laptop", "Another laptop", 899.99, 3)).block();
+
+            StepVerifier.create(itemRepository.findPageAfterTitle("Laptop", laptop.getId(), 1))
+                    .assertNext(item -> assertThat(item.getId()).isEqualTo(secondLaptop.getId()))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should return items after the given price and id")
+        void findPageAfterPrice_ShouldSeekPastCursor() {
+            StepVerifier.create(itemRepository.findPageAfterPrice(new BigDecimal("399.99"), tablet.getId(), 10))
+                    .assertNext(item -> assertThat(item.getTitle()).isEqualTo("Smartphone"))
+                    .assertNext(item -> assertThat(item.getTitle()).isEqualTo("Laptop"))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should seek the title and price indexes to the cursor")
+        void findPageAfter_ShouldRangeScanIndex() {
+            assertThat(explain("SELECT * FROM items WHERE title >= 'Laptop' AND (title > 'Laptop' OR id > 1)"
+                    + " ORDER BY title ASC, id ASC LIMIT 10"))
+                    .containsIgnoringCase("IDX_ITEMS_TITLE_ID")
+                    .containsIgnoringCase("TITLE >=");
+            assertThat(explain("SELECT * FROM items WHERE price >= 399.99 AND (price > 399.99 OR id > 1)"
+                    + " ORDER BY price ASC, id ASC LIMIT 10"))
+                    .containsIgnoringCase("IDX_ITEMS_PRICE_ID")
+                    .containsIgnoringCase("PRICE >=");
+        }
+
+        @Test
+        @DisplayName("Should return items after the given id")
+        void findPageAfterId_ShouldSeekPastCursor() {
+            StepVerifier.create(itemRepository.findPageAfterId(laptop.getId(), 1))
+                    .assertNext(item -> assertThat(item.getId()).isEqualTo(smartphone.getId()))
+                    .verifyComplete();
+        }
+    }
+
+    @Nested
+    @DisplayName("Stock Reservation Tests")
+    class StockReservationTests {
+
+        @Test
+        @DisplayName("Should decrement stock when enough is left")
+        void reserveStock_WithEnoughStock_ShouldDecrement() {
+            StepVerifier.create(itemRepository.reserveStock(Map.of(laptop.getId(), 4, tablet.getId(), 8)))
+                    .verifyComplete();
+
+            assertThat(itemRepository.findById(laptop.getId()).block().getStock()).isEqualTo(6);
+            assertThat(itemRepository.findById(tablet.getId()).block().getStock()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should report items that are short and leave their stock untouched")
+        void reserveStock_WithShortItem_ShouldReportIt() {
+            StepVerifier.create(itemRepository.reserveStock(Map.of(laptop.getId(), 1, smartphone.getId(), 16)))
+                    .expectNext(smartphone.getId())
+                    .verifyComplete();
+
+            assertThat(itemRepository.findById(smartphone.getId()).block().getStock()).isEqualTo(15);
+        }
+
+        @Test
+        @DisplayName("Should add deltas to stock")
+        void adjustStock_ShouldApplyDeltas() {
+            StepVerifier.create(itemRepository.adjustStock(Map.of(laptop.getId(), 5, tablet.getId(), -3)))
+                    .verifyComplete();
+
+            assertThat(itemRepository.findById(laptop.getId()).block().getStock()).isEqualTo(15);
+            assertThat(itemRepository.findById(tablet.getId()).block().getStock()).isEqualTo(5);
+        }
+    }
+
     @Nested
     @DisplayName("Delete Tests")
     class DeleteTests {
@@ -408,4 +490,11 @@ class ItemRepositoryTest {
                     .verifyComplete();
         }
     }
+
+    private String explain(String sql) {
+        return databaseClient.sql("EXPLAIN " + sql)
+                .map(row -> row.get(0, String.class))
+                .one()
+                .block();
+    }
 }
@@ -0,0 +1,99 @@
+package io.github.danjos.intershop.repository;
+
+import io.github.danjos.intershop.model.Item;
+import io.github.danjos.intershop.model.Order;
+import io.github.danjos.intershop.model.OrderItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.smartphone;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest
+@ActiveProfiles("test")
+@DisplayName("OrderItemRepository Tests")
+class OrderItemRepositoryTest {
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private Order order;
+    private Item laptop;
+    private Item smartphone;
+
+    @BeforeEach
+    void setUp() {
+        laptop = itemRepository.save(laptop()).block();
+        smartphone = itemRepository.save(smartphone()).block();
+
+        order = new Order();
+        order.setUserId(100L);
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus("PROCESSING");
+        order = orderRepository.save(order).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteById(order.getId())
+                .then(itemRepository.deleteAllById(List.of(laptop.getId(), smartphone.getId())))
+                .block();
+    }
+
+    @Nested
+    @DisplayName("Batch Insert Tests")
+    class InsertAllTests {
+
+        @Test
+        @DisplayName("Should insert all lines and assign generated ids in order")
+        void insertAll_ShouldAssignGeneratedIds() {
+            List<OrderItem> lines = List.of(line(laptop, 2), line(smartphone, 1));
+
+            StepVerifier.create(orderItemRepository.insertAll(lines).collectList())
+                    .assertNext(saved -> {
+                        assertThat(saved).extracting(OrderItem::getItemId)
+                                .containsExactly(laptop.getId(), smartphone.getId());
+                        assertThat(saved).extracting(OrderItem::getId).doesNotContainNull().doesNotHaveDuplicates();
+                    })
+                    .verifyComplete();
+
+            StepVerifier.create(orderItemRepository.findByOrderIdIn(Set.of(order.getId())))
+                    .expectNextCount(2)
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should complete without touching the database for no lines")
+        void insertAll_WithNoLines_ShouldComplete() {
+            StepVerifier.create(orderItemRepository.insertAll(List.of()))
+                    .verifyComplete();
+        }
+    }
+
+    private OrderItem line(Item item, int quantity) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrderId(order.getId());
+        orderItem.setItemId(item.getId());
+        orderItem.setQuantity(quantity);
+        orderItem.setPrice(item.getPrice());
+        return orderItem;
+    }
+}
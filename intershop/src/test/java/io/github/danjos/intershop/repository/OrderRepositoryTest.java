@@ -0,0 +1,82 @@
+package io.github.danjos.intershop.repository;
+
+import io.github.danjos.intershop.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest
+@ActiveProfiles("test")
+@DisplayName("OrderRepository Tests")
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        order = new Order();
+        order.setUserId(100L);
+        order.setOrderDate(LocalDateTime.now().minusMinutes(5));
+        order.setStatus(Order.STATUS_PAYMENT_PENDING);
+        order = orderRepository.save(order).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteById(order.getId()).block();
+    }
+
+    @Nested
+    @DisplayName("Conditional Transition Tests")
+    class ConditionalTransitionTests {
+
+        @Test
+        @DisplayName("Should delete a pending order only once")
+        void deleteByIdAndStatus_Twice_ShouldDeleteOnce() {
+            StepVerifier.create(orderRepository.deleteByIdAndStatus(order.getId(), Order.STATUS_PAYMENT_PENDING)
+                            .concatWith(orderRepository.deleteByIdAndStatus(order.getId(), Order.STATUS_PAYMENT_PENDING)))
+                    .expectNext(1, 0)
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should neither delete nor pay again an order that was already paid")
+        void transitions_AfterUpdateStatus_ShouldChangeNothing() {
+            StepVerifier.create(orderRepository.updateStatus(order.getId(), Order.STATUS_PAYMENT_PENDING, Order.STATUS_PROCESSING)
+                            .concatWith(orderRepository.updateStatus(order.getId(), Order.STATUS_PAYMENT_PENDING, Order.STATUS_PROCESSING))
+                            .concatWith(orderRepository.deleteByIdAndStatus(order.getId(), Order.STATUS_PAYMENT_PENDING)))
+                    .expectNext(1, 0, 0)
+                    .verifyComplete();
+
+            StepVerifier.create(orderRepository.findById(order.getId()))
+                    .assertNext(saved -> assertThat(saved.getStatus()).isEqualTo(Order.STATUS_PROCESSING))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should find pending orders placed before the cutoff only")
+        void findByStatusAndOrderDateBefore_ShouldSkipYoungerOrders() {
+            StepVerifier.create(orderRepository.findByStatusAndOrderDateBefore(
+                            Order.STATUS_PAYMENT_PENDING, LocalDateTime.now().minusMinutes(1)))
+                    .expectNextMatches(found -> found.getId().equals(order.getId()))
+                    .verifyComplete();
+
+            StepVerifier.create(orderRepository.findByStatusAndOrderDateBefore(
+                            Order.STATUS_PAYMENT_PENDING, LocalDateTime.now().minusMinutes(10)))
+                    .verifyComplete();
+        }
+    }
+}
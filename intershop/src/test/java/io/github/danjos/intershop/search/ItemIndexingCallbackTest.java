@@ -0,0 +1,79 @@
+package io.github.danjos.intershop.search;
+
+import io.github.danjos.intershop.AbstractTestContainerTest;
+import io.github.danjos.intershop.model.Item;
+import io.github.danjos.intershop.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static io.github.danjos.intershop.ItemFixtures.item;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {
+        "intershop.search.index.enabled=true",
+        "intershop.search.index.rebuild-interval=0s"
+})
+@DisplayName("ItemIndexingCallback Tests")
+class ItemIndexingCallbackTest extends AbstractTestContainerTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    @Autowired
+    private ItemSearchIndexLoader searchIndexLoader;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
+    private TransactionalOperator transactionalOperator;
+
+    @BeforeEach
+    void setUp() {
+        transactionalOperator = TransactionalOperator.create(transactionManager);
+        searchIndexLoader.rebuild().block();
+    }
+
+    @Test
+    @DisplayName("Should index an item saved outside a transaction right away")
+    void save_WithoutTransaction_ShouldIndex() {
+        itemRepository.save(item("Projector", "Portable projector", 249.99, 4)).block();
+
+        assertThat(searchIndex.search("projector", 0, 10).total()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should index an item saved in a transaction only after commit")
+    void save_InTransaction_ShouldIndexAfterCommit() {
+        Mono<Item> save = itemRepository.save(item("Turntable", "Vinyl turntable", 349.99, 2))
+                .doOnNext(saved -> assertThat(searchIndex.search("turntable", 0, 10).total()).isZero());
+
+        StepVerifier.create(transactionalOperator.transactional(save))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(searchIndex.search("turntable", 0, 10).total()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not index an item whose transaction rolls back")
+    void save_InRolledBackTransaction_ShouldNotIndex() {
+        Mono<Item> save = itemRepository.save(item("Synthesizer", "Analog synthesizer", 899.99, 1))
+                .then(Mono.error(new IllegalStateException("rollback")));
+
+        StepVerifier.create(transactionalOperator.transactional(save))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(searchIndex.search("synthesizer", 0, 10).total()).isZero();
+    }
+}
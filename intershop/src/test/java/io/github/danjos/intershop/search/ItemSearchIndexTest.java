@@ -0,0 +1,124 @@
+package io.github.danjos.intershop.search;
+
+import io.github.danjos.intershop.model.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.github.danjos.intershop.ItemFixtures.item;
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.smartphone;
+import static io.github.danjos.intershop.ItemFixtures.tablet;
+import static io.github.danjos.intershop.ItemFixtures.withId;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ItemSearchIndex Tests")
+class ItemSearchIndexTest {
+
+    private final ItemSearchIndex index = new ItemSearchIndex(true);
+
+    @BeforeEach
+    void setUp() {
+        index.rebuild(List.of(
+                withId(3L, tablet()),
+                withId(1L, laptop()),
+                withId(2L, smartphone())));
+    }
+
+    @Test
+    @DisplayName("Should match substrings of title or description ignoring case")
+    void search_ShouldMatchSubstrings() {
+        assertThat(index.search("LAP", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("performance", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("t", 0, 10).ids()).containsExactly(1L, 2L, 3L);
+        assertThat(index.search("e m", 0, 10).ids()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should not match text spanning title and description")
+    void search_ShouldNotMatchAcrossFields() {
+        assertThat(index.search("tablet portable", 0, 10).total()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should page results in id order and report the total")
+    void search_ShouldPageInIdOrder() {
+        ItemSearchIndex.Hits hits = index.search("a", 1, 1);
+
+        assertThat(hits.ids()).containsExactly(2L);
+        assertThat(hits.total()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Should reindex updated items and add new ones")
+    void put_ShouldUpdateIndex() {
+        index.put(withId(1L, item("Notebook", "Light notebook", 499.99, 5)));
+        index.put(withId(4L, item("Laptop stand", "Aluminium", 49.99, 5)));
+
+        assertThat(index.search("laptop", 0, 10).ids()).containsExactly(4L);
+        assertThat(index.search("note", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("performance", 0, 10).total()).isZero();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should intersect every trigram of the query")
+    void search_ShouldIntersectAllTrigrams() {
+        index.put(withId(4L, item("Tablet stand", "Desk stand", 9.99, 5)));
+        index.put(withId(5L, item("Stand lamp", "Tall lamp", 59.99, 5)));
+
+        assertThat(index.search("stand", 0, 10).ids()).containsExactly(4L, 5L);
+        assertThat(index.search("tablet stand", 0, 10).ids()).containsExactly(4L);
+        assertThat(index.search("tablet lamp", 0, 10).total()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep updates made while a rebuild snapshot was loading and drop deleted items")
+    void rebuild_InterleavedWithPut_ShouldReplayUpdates() {
+        // Item 2 was deleted from the database, so the snapshot no longer has it
+        List<Item> snapshot = List.of(withId(1L, laptop()), withId(3L, tablet()));
+
+        index.beginRebuild();
+        index.put(withId(4L, item("Monitor", "Curved monitor", 299.99, 5)));
+        index.put(withId(1L, item("Notebook", "Light notebook", 499.99, 5)));
+        index.rebuild(snapshot);
+
+        assertThat(index.search("monitor", 0, 10).ids()).containsExactly(4L);
+        assertThat(index.search("note", 0, 10).ids()).containsExactly(1L);
+        assertThat(index.search("laptop", 0, 10).total()).isZero();
+        assertThat(index.search("smartphone", 0, 10).total()).isZero();
+        assertThat(index.size()).isEqualTo(3);
+
+        index.put(withId(5L, item("Mouse", "Wireless mouse", 19.99, 5)));
+        index.rebuild(snapshot);
+        assertThat(index.search("mouse", 0, 10).total()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep id order when a lower id is added after a rebuild")
+    void put_WithLowerId_ShouldKeepIdOrder() {
+        ItemSearchIndex sparse = new ItemSearchIndex(true);
+        sparse.rebuild(List.of(withId(10L, tablet()), withId(30L, item("Tablet stand", "Desk stand", 9.99, 5))));
+        sparse.put(withId(20L, item("Tablet pen", "Stylus", 39.99, 5)));
+        sparse.put(withId(30L, item("Tablet dock", "Desk dock", 19.99, 5)));
+
+        assertThat(sparse.search("tablet", 0, 10).ids()).containsExactly(10L, 20L, 30L);
+        assertThat(sparse.search("ta", 1, 1).ids()).containsExactly(20L);
+        assertThat(sparse.search("tablet", 2, 10).ids()).containsExactly(30L);
+        assertThat(sparse.search("tablet", 5, 10).ids()).isEmpty();
+        assertThat(sparse.search("stand", 0, 10).total()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not be ready until built and never when disabled")
+    void isReady_ShouldReflectStateAndFlag() {
+        assertThat(new ItemSearchIndex(true).isReady()).isFalse();
+        assertThat(index.isReady()).isTrue();
+
+        ItemSearchIndex disabled = new ItemSearchIndex(false);
+        disabled.rebuild(List.of());
+        assertThat(disabled.isReady()).isFalse();
+    }
+}
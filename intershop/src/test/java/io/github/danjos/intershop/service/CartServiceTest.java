@@ -1,6 +1,9 @@
 package io.github.danjos.intershop.service;
 
+import io.github.danjos.intershop.cart.Cart;
+import io.github.danjos.intershop.cart.CartStore;
 import io.github.danjos.intershop.dto.CartItemDto;
+import io.github.danjos.intershop.dto.CartSnapshot;
 import io.github.danjos.intershop.model.Item;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,10 +20,12 @@ import reactor.test.StepVerifier;
 
 import java.util.*;
 
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.smartphone;
+import static io.github.danjos.intershop.ItemFixtures.withId;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,312 +36,164 @@ class CartServiceTest {
    private ItemService itemService;
 
    @Mock
-   private WebSession session;
+   private CartStore cartStore;
+
+   @Mock
+   private PaymentClientService paymentClientService;
 
    @Mock
-   private Map<String, Object> sessionAttributes;
+   private WebSession session;
 
    @InjectMocks
    private CartService cartService;
 
    private Item laptop;
    private Item smartphone;
-   private Map<Long, Integer> cart;
+   private Cart cart;
 
    @BeforeEach
    void setUp() {
-       laptop = new Item();
-       laptop.setId(1L);
-       laptop.setTitle("Laptop");
-       laptop.setDescription("High performance laptop");
-       laptop.setPrice(999.99);
-
-       smartphone = new Item();
-       smartphone.setId(2L);
-       smartphone.setTitle("Smartphone");
-       smartphone.setDescription("Latest smartphone");
-       smartphone.setPrice(599.99);
-
-       cart = new HashMap<>();
-       cart.put(1L, 2);
-       cart.put(2L, 1);
-
-       when(session.getAttributes()).thenReturn(sessionAttributes);
-   }
-
-   @Nested
-   @DisplayName("Add Item To Cart Tests")
-   class AddItemToCartTests {
-
-       @Test
-       @DisplayName("Should add new item to cart")
-       void addItemToCart_NewItem_ShouldAddToCart() {
-           Long itemId = 3L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           cartService.addItemToCart(itemId, session);
-
-           assertThat(cart.get(itemId)).isEqualTo(1);
-           verify(sessionAttributes).put("cart", cart);
-       }
+       laptop = withId(1L, laptop());
+       smartphone = withId(2L, smartphone());
 
-       @Test
-       @DisplayName("Should increment quantity for existing item")
-       void addItemToCart_ExistingItem_ShouldIncrementQuantity() {
-           Long itemId = 1L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           cartService.addItemToCart(itemId, session);
-
-           assertThat(cart.get(itemId)).isEqualTo(3);
-           verify(sessionAttributes).put("cart", cart);
-       }
-
-       @Test
-       @DisplayName("Should create new cart when cart is empty")
-       void addItemToCart_EmptyCart_ShouldCreateNewCartAndUpdateCartAttribute() {
-           Long itemId = 1L;
-           when(sessionAttributes.get("cart")).thenReturn(null);
-
-           cartService.addItemToCart(itemId, session);
-
-           verify(sessionAttributes, times(2)).put(eq("cart"), any(Map.class));
-       }
+       cart = Cart.of(Map.of(1L, 2, 2L, 1));
    }
 
    @Nested
-   @DisplayName("Add Item To Cart Reactive Tests")
-   class AddItemToCartReactiveTests {
+   @DisplayName("Cart Mutation Tests")
+   class CartMutationTests {
 
        @Test
-       @DisplayName("Should add item to cart reactively")
-       void addItemToCartReactive_NewItem_ShouldAddToCart() {
-           Long itemId = 3L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
+       @DisplayName("Should increment the item in the cart store")
+       void addItemToCartReactive_ShouldIncrement() {
+           when(cartStore.increment(session, 3L)).thenReturn(Mono.empty());
 
-           Mono<Void> result = cartService.addItemToCartReactive(itemId, session);
-
-           StepVerifier.create(result)
+           StepVerifier.create(cartService.addItemToCartReactive(3L, session))
                    .verifyComplete();
 
-           assertThat(cart.get(itemId)).isEqualTo(1);
-           verify(sessionAttributes).put("cart", cart);
+           verify(cartStore).increment(session, 3L);
        }
 
        @Test
-       @DisplayName("Should increment quantity for existing item reactively")
-       void addItemToCartReactive_ExistingItem_ShouldIncrementQuantity() {
-           Long itemId = 1L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           Mono<Void> result = cartService.addItemToCartReactive(itemId, session);
+       @DisplayName("Should decrement the item in the cart store")
+       void removeItemFromCartReactive_ShouldDecrement() {
+           when(cartStore.decrement(session, 2L)).thenReturn(Mono.empty());
 
-           StepVerifier.create(result)
+           StepVerifier.create(cartService.removeItemFromCartReactive(2L, session))
                    .verifyComplete();
 
-           assertThat(cart.get(itemId)).isEqualTo(3);
-           verify(sessionAttributes).put("cart", cart);
-       }
-   }
-
-   @Nested
-   @DisplayName("Remove Item From Cart Tests")
-   class RemoveItemFromCartTests {
-
-       @Test
-       @DisplayName("Should decrement quantity when quantity greater than one")
-       void removeItemFromCart_QuantityGreaterThanOne_ShouldDecrementQuantity() {
-           Long itemId = 1L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           cartService.removeItemFromCart(itemId, session);
-
-           assertThat(cart.get(itemId)).isEqualTo(1);
-           verify(sessionAttributes).put("cart", cart);
+           verify(cartStore).decrement(session, 2L);
        }
 
        @Test
-       @DisplayName("Should remove item when quantity equals one")
-       void removeItemFromCart_QuantityEqualsOne_ShouldRemoveItem() {
-           Long itemId = 2L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           cartService.removeItemFromCart(itemId, session);
+       @DisplayName("Should remove the item from the cart store")
+       void deleteItemFromCartReactive_ShouldRemove() {
+           when(cartStore.remove(session, 1L)).thenReturn(Mono.empty());
 
-           assertThat(cart).doesNotContainKey(itemId);
-           verify(sessionAttributes).put("cart", cart);
-       }
-
-       @Test
-       @DisplayName("Should handle removing non-existent item")
-       void removeItemFromCart_NonExistentItem_ShouldHandleGracefully() {
-           Long itemId = 999L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           cartService.removeItemFromCart(itemId, session);
-
-           verify(sessionAttributes).put("cart", cart);
-       }
-   }
-
-   @Nested
-   @DisplayName("Remove Item From Cart Reactive Tests")
-   class RemoveItemFromCartReactiveTests {
-
-       @Test
-       @DisplayName("Should remove item from cart reactively")
-       void removeItemFromCartReactive_ExistingItem_ShouldRemoveItem() {
-           Long itemId = 2L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           Mono<Void> result = cartService.removeItemFromCartReactive(itemId, session);
-
-           StepVerifier.create(result)
+           StepVerifier.create(cartService.deleteItemFromCartReactive(1L, session))
                    .verifyComplete();
 
-           assertThat(cart).doesNotContainKey(itemId);
-           verify(sessionAttributes).put("cart", cart);
+           verify(cartStore).remove(session, 1L);
        }
 
        @Test
-       @DisplayName("Should handle non-existent item reactively")
-       void removeItemFromCartReactive_NonExistentItem_ShouldHandleGracefully() {
-           Long itemId = 999L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           Mono<Void> result = cartService.removeItemFromCartReactive(itemId, session);
+       @DisplayName("Should clear the cart store")
+       void clearCart_ShouldClear() {
+           when(cartStore.clear(session)).thenReturn(Mono.empty());
 
-           StepVerifier.create(result)
+           StepVerifier.create(cartService.clearCart(session))
                    .verifyComplete();
-       }
-   }
-
-   @Nested
-   @DisplayName("Delete Item From Cart Reactive Tests")
-   class DeleteItemFromCartReactiveTests {
-
-       @Test
-       @DisplayName("Should delete item from cart reactively")
-       void deleteItemFromCartReactive_ExistingItem_ShouldDeleteItem() {
-           Long itemId = 1L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
 
-           Mono<Void> result = cartService.deleteItemFromCartReactive(itemId, session);
-
-           StepVerifier.create(result)
-                   .verifyComplete();
-
-           assertThat(cart).doesNotContainKey(itemId);
-           verify(sessionAttributes).put("cart", cart);
-       }
-
-       @Test
-       @DisplayName("Should handle non-existent item reactively")
-       void deleteItemFromCartReactive_NonExistentItem_ShouldHandleGracefully() {
-           Long itemId = 999L;
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           Mono<Void> result = cartService.deleteItemFromCartReactive(itemId, session);
-
-           StepVerifier.create(result)
-                   .verifyComplete();
+           verify(cartStore).clear(session);
        }
    }
 
    @Nested
-   @DisplayName("Get Cart Tests")
-   class GetCartTests {
+   @DisplayName("Cart Snapshot Tests")
+   class CartSnapshotTests {
 
        @Test
-       @DisplayName("Should return existing cart")
-       void getCart_ExistingCart_ShouldReturnCart() {
-           when(sessionAttributes.get("cart")).thenReturn(cart);
-
-           Map<Long, Integer> result = cartService.getCart(session);
-
-           assertThat(result).isEqualTo(cart);
-       }
-
-       @Test
-       @DisplayName("Should create new cart when no cart exists")
-       void getCart_NoCart_ShouldCreateNewCart() {
-           when(sessionAttributes.get("cart")).thenReturn(null);
-
-           Map<Long, Integer> result = cartService.getCart(session);
-
-           assertThat(result).isNotNull();
-           assertThat(result).isEmpty();
-           verify(sessionAttributes).put(eq("cart"), any(Map.class));
-       }
-   }
-
-   @Nested
-   @DisplayName("Get Cart Items Reactive Tests")
-   class GetCartItemsReactiveTests {
-
-       @Test
-       @DisplayName("Should return cart items reactively")
-       void getCartItemsReactive_WithItems_ShouldReturnCartItemDtos() {
-           when(sessionAttributes.get("cart")).thenReturn(cart);
+       @DisplayName("Should return the cart items and their total")
+       void getCartSnapshot_WithItems_ShouldReturnItemsAndTotal() {
+           when(cartStore.getCart(session)).thenReturn(Mono.just(cart));
            when(itemService.getItemByIds(any())).thenReturn(Flux.fromIterable(Arrays.asList(laptop, smartphone)));
 
-           Mono<List<CartItemDto>> result = cartService.getCartItemsReactive(session);
-
-           StepVerifier.create(result)
-                   .assertNext(items -> {
+           StepVerifier.create(cartService.getCartSnapshot(session))
+                   .assertNext(snapshot -> {
+                       List<CartItemDto> items = snapshot.getItems();
                        assertThat(items).hasSize(2);
                        assertThat(items.get(0).getId()).isEqualTo(1L);
                        assertThat(items.get(0).getCount()).isEqualTo(2);
                        assertThat(items.get(1).getId()).isEqualTo(2L);
                        assertThat(items.get(1).getCount()).isEqualTo(1);
+                       assertThat(snapshot.getTotal()).isCloseTo(2599.97, within(0.01));
                    })
                    .verifyComplete();
        }
 
        @Test
-       @DisplayName("Should return empty list for empty cart reactively")
-       void getCartItemsReactive_EmptyCart_ShouldReturnEmptyList() {
-           Map<Long, Integer> emptyCart = new HashMap<>();
-           when(sessionAttributes.get("cart")).thenReturn(emptyCart);
+       @DisplayName("Should return no items and a zero total for an empty cart")
+       void getCartSnapshot_EmptyCart_ShouldReturnNoItemsAndZeroTotal() {
+           when(cartStore.getCart(session)).thenReturn(Mono.just(new Cart()));
            when(itemService.getItemByIds(any())).thenReturn(Flux.empty());
 
-           Mono<List<CartItemDto>> result = cartService.getCartItemsReactive(session);
-
-           StepVerifier.create(result)
-                   .assertNext(items -> assertThat(items).isEmpty())
+           StepVerifier.create(cartService.getCartSnapshot(session))
+                   .assertNext(snapshot -> {
+                       assertThat(snapshot.getItems()).isEmpty();
+                       assertThat(snapshot.getTotal()).isEqualTo(0.0);
+                       assertThat(snapshot.isEmpty()).isTrue();
+                   })
                    .verifyComplete();
        }
-   }
-
-   @Nested
-   @DisplayName("Get Cart Total Reactive Tests")
-   class GetCartTotalReactiveTests {
 
        @Test
-       @DisplayName("Should return correct total reactively")
-       void getCartTotalReactive_WithItems_ShouldReturnCorrectTotal() {
-           when(sessionAttributes.get("cart")).thenReturn(cart);
+       @DisplayName("Should load items and balance once for the whole cart page")
+       void getCartSnapshotWithBalance_ShouldFetchItemsAndBalanceOnce() {
+           when(cartStore.getCart(session)).thenReturn(Mono.just(cart));
            when(itemService.getItemByIds(any())).thenReturn(Flux.fromIterable(Arrays.asList(laptop, smartphone)));
+           when(paymentClientService.getBalance()).thenReturn(Mono.just(3000.0));
+
+           StepVerifier.create(cartService.getCartSnapshotWithBalance(session))
+                   .assertNext(snapshot -> {
+                       assertThat(snapshot.getItems()).hasSize(2);
+                       assertThat(snapshot.getTotal()).isCloseTo(2599.97, within(0.01));
+                       assertThat(snapshot.getBalance()).isEqualTo(3000.0);
+                       assertThat(snapshot.isCheckoutEnabled()).isTrue();
+                       assertThat(snapshot.getCart()).isEqualTo(cart);
+                   })
+                   .verifyComplete();
+
+           verify(cartStore, times(1)).getCart(session);
+           verify(itemService, times(1)).getItemByIds(any());
+           verify(paymentClientService, times(1)).getBalance();
+       }
 
-           Mono<Double> result = cartService.getCartTotalReactive(session);
+       @Test
+       @DisplayName("Should disable checkout when the balance is below the total")
+       void getCartSnapshotWithBalance_InsufficientBalance_ShouldDisableCheckout() {
+           when(cartStore.getCart(session)).thenReturn(Mono.just(cart));
+           when(itemService.getItemByIds(any())).thenReturn(Flux.fromIterable(Arrays.asList(laptop, smartphone)));
+           when(paymentClientService.getBalance()).thenReturn(Mono.just(100.0));
 
-           StepVerifier.create(result)
-                   .assertNext(total -> assertThat(total).isCloseTo(2599.97, within(0.01)))
+           StepVerifier.create(cartService.getCartSnapshotWithBalance(session))
+                   .assertNext(snapshot -> assertThat(snapshot.isCheckoutEnabled()).isFalse())
                    .verifyComplete();
        }
 
        @Test
-       @DisplayName("Should return zero for empty cart reactively")
-       void getCartTotalReactive_EmptyCart_ShouldReturnZero() {
-           Map<Long, Integer> emptyCart = new HashMap<>();
-           when(sessionAttributes.get("cart")).thenReturn(emptyCart);
-           when(itemService.getItemByIds(any())).thenReturn(Flux.empty());
-
-           Mono<Double> result = cartService.getCartTotalReactive(session);
+       @DisplayName("Should not call the payment service for a snapshot without balance")
+       void getCartSnapshot_ShouldNotFetchBalance() {
+           when(cartStore.getCart(session)).thenReturn(Mono.just(cart));
+           when(itemService.getItemByIds(any())).thenReturn(Flux.fromIterable(Arrays.asList(laptop, smartphone)));
 
-           StepVerifier.create(result)
-                   .assertNext(total -> assertThat(total).isEqualTo(0.0))
+           StepVerifier.create(cartService.getCartSnapshot(session))
+                   .assertNext(snapshot -> {
+                       assertThat(snapshot.getBalance()).isNull();
+                       assertThat(snapshot.isCheckoutEnabled()).isFalse();
+                   })
                    .verifyComplete();
+
+           verifyNoInteractions(paymentClientService);
        }
    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.AbstractTestContainerTest;
+import io.github.danjos.intershop.exception.InsufficientStockException;
+import io.github.danjos.intershop.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.test.context.TestPropertySource;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Item 100 comes from test-data.sql with a stock of 10
+@TestPropertySource(properties = {
+        "intershop.stock.hot-items=100",
+        "intershop.stock.reconcile-interval=1h"
+})
+@DisplayName("HotStockCounter Tests")
+class HotStockCounterTest extends AbstractTestContainerTest {
+
+    private static final Long HOT_ITEM_ID = 100L;
+
+    @Autowired
+    private HotStockCounter hotStockCounter;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ReactiveStringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        hotStockCounter.reconcile().block();
+        stringRedisTemplate.delete("stock:{hot}:" + HOT_ITEM_ID).block();
+    }
+
+    @Test
+    @DisplayName("Should reserve from Redis and write the decrement back on reconcile")
+    void reserve_ShouldDecrementCounterAndReconcile() {
+        int stockBefore = itemRepository.findById(HOT_ITEM_ID).block().getStock();
+
+        StepVerifier.create(stockReservationService.reserve(Map.of(HOT_ITEM_ID, 3)))
+                .verifyComplete();
+
+        assertThat(stringRedisTemplate.opsForValue().get("stock:{hot}:" + HOT_ITEM_ID).block())
+                .isEqualTo(String.valueOf(stockBefore - 3));
+        assertThat(itemRepository.findById(HOT_ITEM_ID).block().getStock()).isEqualTo(stockBefore);
+
+        hotStockCounter.reconcile().block();
+        assertThat(itemRepository.findById(HOT_ITEM_ID).block().getStock()).isEqualTo(stockBefore - 3);
+
+        stockReservationService.release(Map.of(HOT_ITEM_ID, 3)).block();
+        hotStockCounter.reconcile().block();
+        assertThat(itemRepository.findById(HOT_ITEM_ID).block().getStock()).isEqualTo(stockBefore);
+    }
+
+    @Test
+    @DisplayName("Should reject a reservation larger than the remaining stock")
+    void reserve_WithInsufficientStock_ShouldFail() {
+        int stockBefore = itemRepository.findById(HOT_ITEM_ID).block().getStock();
+
+        StepVerifier.create(stockReservationService.reserve(Map.of(HOT_ITEM_ID, stockBefore + 1)))
+                .expectError(InsufficientStockException.class)
+                .verify();
+
+        assertThat(stringRedisTemplate.opsForValue().get("stock:{hot}:" + HOT_ITEM_ID).block())
+                .isEqualTo(String.valueOf(stockBefore));
+    }
+}
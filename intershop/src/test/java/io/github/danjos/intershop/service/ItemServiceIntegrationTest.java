@@ -17,6 +17,10 @@ import reactor.test.StepVerifier;
 
 import java.util.List;
 
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.replaceCatalogue;
+import static io.github.danjos.intershop.ItemFixtures.smartphone;
+import static io.github.danjos.intershop.ItemFixtures.tablet;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -37,32 +41,10 @@ class ItemServiceIntegrationTest extends AbstractTestContainerTest {
 
     @BeforeEach
     void setUp() {
-        // Initialize test data
-        laptop = new Item();
-        laptop.setTitle("Laptop");
-        laptop.setDescription("High performance laptop");
-        laptop.setPrice(999.99);
-        laptop.setStock(10);
-        laptop.setImgPath("/images/laptop.jpg");
-
-        smartphone = new Item();
-        smartphone.setTitle("Smartphone");
-        smartphone.setDescription("Latest smartphone model");
-        smartphone.setPrice(599.99);
-        smartphone.setStock(15);
-        smartphone.setImgPath("/images/smartphone.jpg");
-
-        tablet = new Item();
-        tablet.setTitle("Tablet");
-        tablet.setDescription("Portable tablet device");
-        tablet.setPrice(399.99);
-        tablet.setStock(8);
-        tablet.setImgPath("/images/tablet.jpg");
-
-        // Clear and save test data
-        itemRepository.deleteAll()
-                .thenMany(itemRepository.saveAll(List.of(laptop, smartphone, tablet)))
-                .blockLast();
+        List<Item> items = replaceCatalogue(itemRepository, itemService, laptop(), smartphone(), tablet());
+        laptop = items.get(0);
+        smartphone = items.get(1);
+        tablet = items.get(2);
     }
 
     @Nested
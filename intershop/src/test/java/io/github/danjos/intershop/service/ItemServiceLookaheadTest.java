@@ -0,0 +1,67 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.AbstractTestContainerTest;
+import io.github.danjos.intershop.model.Item;
+import io.github.danjos.intershop.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import reactor.test.StepVerifier;
+
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.replaceCatalogue;
+import static io.github.danjos.intershop.ItemFixtures.smartphone;
+import static io.github.danjos.intershop.ItemFixtures.tablet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = "intershop.search.count-mode=none")
+@DisplayName("ItemService Lookahead Paging Tests")
+class ItemServiceLookaheadTest extends AbstractTestContainerTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @BeforeEach
+    void setUp() {
+        replaceCatalogue(itemRepository, itemService, laptop(), smartphone(), tablet());
+    }
+
+    @Test
+    @DisplayName("Should detect a next page from the extra row")
+    void performSearch_WithMoreRows_ShouldHaveNext() {
+        StepVerifier.create(itemService.performSearch(null, 1, 2, "PRICE"))
+                .assertNext(page -> {
+                    assertThat(page.getContent()).extracting(Item::getTitle).containsExactly("Tablet", "Smartphone");
+                    assertThat(page.hasNext()).isTrue();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should report no next page on the last page")
+    void performSearch_OnLastPage_ShouldNotHaveNext() {
+        StepVerifier.create(itemService.performSearch(null, 2, 2, "PRICE"))
+                .assertNext(page -> {
+                    assertThat(page.getContent()).extracting(Item::getTitle).containsExactly("Laptop");
+                    assertThat(page.hasNext()).isFalse();
+                    assertThat(page.hasPrevious()).isTrue();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should page text searches without counting")
+    void performSearch_WithQuery_ShouldHaveNext() {
+        StepVerifier.create(itemService.performSearch("a", 1, 1, "NO"))
+                .assertNext(page -> {
+                    assertThat(page.getContent()).hasSize(1);
+                    assertThat(page.hasNext()).isTrue();
+                })
+                .verifyComplete();
+    }
+}
@@ -1,6 +1,8 @@
 package io.github.danjos.intershop.service;
 
 import io.github.danjos.intershop.AbstractTestContainerTest;
+import io.github.danjos.intershop.cache.CacheNamespaces;
+import io.github.danjos.intershop.cache.ItemNearCache;
 import io.github.danjos.intershop.exception.NotFoundException;
 import io.github.danjos.intershop.model.Item;
 import io.github.danjos.intershop.repository.ItemRepository;
@@ -16,9 +18,16 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.replaceCatalogue;
+import static io.github.danjos.intershop.ItemFixtures.smartphone;
+import static io.github.danjos.intershop.ItemFixtures.tablet;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DisplayName("ItemService Tests")
@@ -33,31 +42,20 @@ class ItemServiceTest extends AbstractTestContainerTest {
    @Autowired
    private ItemService itemService;
 
+   @Autowired
+   private ItemNearCache nearCache;
+
+   @Autowired
+   private CacheNamespaces cacheNamespaces;
+
    private Item laptop;
    private Item smartphone;
-   private List<Item> items;
 
    @BeforeEach
    void setUp() {
-       // Clear existing data and save test items
-       itemRepository.deleteAll().block();
-       
-       laptop = new Item();
-       laptop.setTitle("Laptop");
-       laptop.setDescription("High performance laptop");
-       laptop.setPrice(999.99);
-       laptop.setStock(10);
-
-       smartphone = new Item();
-       smartphone.setTitle("Smartphone");
-       smartphone.setDescription("Latest smartphone");
-       smartphone.setPrice(599.99);
-       smartphone.setStock(15);
-
-       // Save items and get their IDs
-       laptop = itemRepository.save(laptop).block();
-       smartphone = itemRepository.save(smartphone).block();
-       items = Arrays.asList(laptop, smartphone);
+       List<Item> items = replaceCatalogue(itemRepository, itemService, laptop(), smartphone());
+       laptop = items.get(0);
+       smartphone = items.get(1);
    }
 
    @Nested
@@ -105,6 +103,80 @@ class ItemServiceTest extends AbstractTestContainerTest {
                    })
                    .verifyComplete();
        }
+
+       @Test
+       @DisplayName("Should walk listing pages through cursors in offset order")
+       void searchItems_WithCursor_ShouldMatchOffsetPages() {
+           for (String sort : List.of("ALPHA", "PRICE", "NO")) {
+               Page<Item> firstPage = itemService.searchItems(null, 1, 1, sort).block();
+               String cursor = itemService.nextCursor(firstPage, null, sort);
+               assertThat(cursor).isNotNull();
+
+               Page<Item> offsetPage = itemService.searchItems(null, 2, 1, sort).block();
+               StepVerifier.create(itemService.searchItems(null, 1, 1, sort, cursor))
+                       .assertNext(page -> {
+                           assertThat(page.getNumber()).isEqualTo(1);
+                           assertThat(page.getContent()).extracting(Item::getId)
+                                   .containsExactlyElementsOf(offsetPage.getContent().stream().map(Item::getId).toList());
+                           assertThat(itemService.nextCursor(page, null, sort)).isNull();
+                       })
+                       .verifyComplete();
+           }
+       }
+
+       @Test
+       @DisplayName("Should ignore a cursor issued for another sort")
+       void searchItems_WithCursorForAnotherSort_ShouldUsePageNumber() {
+           Page<Item> firstPage = itemService.searchItems(null, 1, 1, "PRICE").block();
+           String cursor = itemService.nextCursor(firstPage, null, "PRICE");
+
+           StepVerifier.create(itemService.searchItems(null, 1, 1, "ALPHA", cursor))
+                   .assertNext(page -> assertThat(page.getContent().get(0).getTitle()).isEqualTo("Laptop"))
+                   .verifyComplete();
+       }
+
+       @Test
+       @DisplayName("Should restart at the first page for a crafted cursor")
+       void searchItems_WithCraftedCursor_ShouldReturnFirstPage() {
+           for (String raw : List.of("ALPHA|0|1|Laptop", "ALPHA|-5|1|Laptop", "PRICE|2|1|cheap", "NAME|2|1|x")) {
+               String cursor = Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+               StepVerifier.create(itemService.searchItems(null, 3, 1, "ALPHA", cursor))
+                       .assertNext(page -> {
+                           assertThat(page.getNumber()).isZero();
+                           assertThat(page.getContent().get(0).getTitle()).isEqualTo("Laptop");
+                       })
+                       .verifyComplete();
+           }
+       }
+   }
+
+   @Nested
+   @DisplayName("Search Count Cache Tests")
+   class SearchCountCacheTests {
+
+       @Test
+       @DisplayName("Should store the total count once per query")
+       void searchItems_ShouldCacheTotalCount() {
+           itemService.searchItems(null, 1, 1, "NO").block();
+
+           String countsKey = cacheNamespaces.search().key("counts").block();
+           StepVerifier.create(redisTemplate.<String, Object>opsForHash().get(countsKey, "*"))
+                   .assertNext(count -> assertThat(((Number) count).longValue()).isEqualTo(2L))
+                   .verifyComplete();
+       }
+
+       @Test
+       @DisplayName("Should recount after an item is saved")
+       void searchItems_AfterItemSaved_ShouldRecount() {
+           itemService.searchItems(null, 1, 1, "NO").block();
+
+           itemRepository.save(tablet()).block();
+
+           StepVerifier.create(itemService.searchItems(null, 1, 5, "NO"))
+                   .assertNext(page -> assertThat(page.getTotalElements()).isEqualTo(3L))
+                   .verifyComplete();
+       }
    }
 
    @Nested
@@ -167,8 +239,146 @@ class ItemServiceTest extends AbstractTestContainerTest {
                    .verifyComplete();
            
            // Verify Redis contains the cached item
-           String cacheKey = "item:" + laptop.getId();
+           String cacheKey = cacheNamespaces.item().key(laptop.getId()).block();
            assertThat(redisTemplate.hasKey(cacheKey).block()).isTrue();
        }
    }
-}
\ No newline at end of file
+
+   @Nested
+   @DisplayName("Get Items By IDs Tests")
+   class GetItemByIdsTests {
+
+       @Test
+       @DisplayName("Should return items in requested order and skip unknown IDs")
+       void getItemByIds_ShouldMergeResultsById() {
+           Set<Long> ids = new LinkedHashSet<>(List.of(smartphone.getId(), 999L, laptop.getId()));
+
+           StepVerifier.create(itemService.getItemByIds(ids).collectList())
+                   .assertNext(result -> assertThat(result).extracting(Item::getTitle)
+                           .containsExactly("Smartphone", "Laptop"))
+                   .verifyComplete();
+       }
+
+       @Test
+       @DisplayName("Should store loaded items in Redis")
+       void getItemByIds_ShouldCacheLoadedItems() {
+           nearCache.invalidateAll();
+
+           StepVerifier.create(itemService.getItemByIds(Set.of(laptop.getId(), smartphone.getId())))
+                   .expectNextCount(2)
+                   .verifyComplete();
+
+           assertThat(redisTemplate.hasKey(cacheNamespaces.item().key(laptop.getId()).block()).block()).isTrue();
+           assertThat(redisTemplate.hasKey(cacheNamespaces.item().key(smartphone.getId()).block()).block()).isTrue();
+       }
+
+       @Test
+       @DisplayName("Should return empty flux for empty IDs")
+       void getItemByIds_WithEmptyIds_ShouldReturnEmpty() {
+           StepVerifier.create(itemService.getItemByIds(Set.of()))
+                   .verifyComplete();
+       }
+   }
+
+   @Nested
+   @DisplayName("Near Cache Tests")
+   class NearCacheTests {
+
+       @Test
+       @DisplayName("Should keep loaded item in the local cache")
+       void getItemById_ShouldPopulateNearCache() {
+           StepVerifier.create(itemService.getItemById(laptop.getId()))
+                   .expectNextCount(1)
+                   .verifyComplete();
+
+           assertThat(nearCache.get(laptop.getId())).isNotNull();
+           assertThat(nearCache.get(laptop.getId()).getTitle()).isEqualTo("Laptop");
+       }
+
+       @Test
+       @DisplayName("Should serve getItemByIds from the local cache")
+       void getItemByIds_ShouldUseNearCache() {
+           itemService.getItemByIds(Set.of(laptop.getId(), smartphone.getId())).collectList().block();
+           long hitsBefore = nearCache.stats().hitCount();
+
+           StepVerifier.create(itemService.getItemByIds(Set.of(laptop.getId(), smartphone.getId())).collectList())
+                   .assertNext(result -> assertThat(result).extracting(Item::getTitle)
+                           .containsExactlyInAnyOrder("Laptop", "Smartphone"))
+                   .verifyComplete();
+
+           assertThat(nearCache.stats().hitCount()).isGreaterThanOrEqualTo(hitsBefore + 2);
+       }
+
+       @Test
+       @DisplayName("Should drop item from the local cache when it is cleared")
+       void clearItemCache_ShouldInvalidateNearCache() {
+           itemService.getItemById(laptop.getId()).block();
+
+           StepVerifier.create(itemService.clearItemCache(laptop.getId()))
+                   .verifyComplete();
+
+           assertThat(nearCache.get(laptop.getId())).isNull();
+       }
+   }
+
+   @Nested
+   @DisplayName("Cache Invalidation Tests")
+   class CacheInvalidationTests {
+
+       @Test
+       @DisplayName("Should move item keys to a new generation when all item cache is cleared")
+       void clearAllItemCache_ShouldBumpGeneration() {
+           itemService.getItemById(laptop.getId()).block();
+           String oldKey = cacheNamespaces.item().key(laptop.getId()).block();
+           long oldGeneration = cacheNamespaces.item().generation().block();
+
+           StepVerifier.create(itemService.clearAllItemCache())
+                   .verifyComplete();
+
+           assertThat(cacheNamespaces.item().generation().block()).isEqualTo(oldGeneration + 1);
+           assertThat(cacheNamespaces.item().key(laptop.getId()).block()).isNotEqualTo(oldKey);
+           assertThat(nearCache.get(laptop.getId())).isNull();
+       }
+
+       @Test
+       @DisplayName("Should refresh cached search pages when an item is invalidated")
+       void clearItemCache_ShouldRefreshCachedSearchPages() {
+           itemService.searchItems(null, 1, 10, "ALPHA").block();
+           laptop.setPrice(899.99);
+           itemRepository.save(laptop).block();
+
+           StepVerifier.create(itemService.clearItemCache(laptop.getId())
+                           .then(itemService.searchItems(null, 1, 10, "ALPHA")))
+                   .assertNext(page -> {
+                       assertThat(page.getContent()).hasSize(2);
+                       assertThat(page.getContent().get(0).getPrice()).isEqualTo(899.99);
+                   })
+                   .verifyComplete();
+       }
+
+       @Test
+       @DisplayName("Should remove keys of older generations")
+       void removeOrphanedKeys_ShouldDeleteOldGenerationKeys() {
+           itemService.searchItems(null, 1, 10, "ALPHA").block();
+           String oldKey = cacheNamespaces.search().key("NO:1:10:ALPHA").block();
+           assertThat(redisTemplate.hasKey(oldKey).block()).isTrue();
+
+           itemService.clearSearchCache().block();
+           long generation = cacheNamespaces.search().generation().block();
+           cacheNamespaces.search().removeOrphanedKeys(generation).block();
+
+           assertThat(redisTemplate.hasKey(oldKey).block()).isFalse();
+       }
+
+       @Test
+       @DisplayName("Should serve fresh search results after search cache is cleared")
+       void clearSearchCache_ShouldMissOnNextSearch() {
+           itemService.searchItems(null, 1, 10, null).block();
+           itemRepository.save(tablet()).block();
+
+           StepVerifier.create(itemService.clearSearchCache().then(itemService.searchItems(null, 1, 10, null)))
+                   .assertNext(page -> assertThat(page.getTotalElements()).isEqualTo(3L))
+                   .verifyComplete();
+       }
+   }
+}
@@ -1,5 +1,6 @@
 package io.github.danjos.intershop.service;
 
+import io.github.danjos.intershop.exception.InsufficientStockException;
 import io.github.danjos.intershop.model.Item;
 import io.github.danjos.intershop.model.Order;
 import io.github.danjos.intershop.model.OrderItem;
@@ -21,8 +22,13 @@ import reactor.test.StepVerifier;
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.smartphone;
+import static io.github.danjos.intershop.ItemFixtures.withId;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +44,9 @@ class OrderServiceTest {
    @Mock
    private ItemService itemService;
 
+   @Mock
+   private StockReservationService stockReservationService;
+
    @InjectMocks
    private OrderService orderService;
 
@@ -53,15 +62,8 @@ class OrderServiceTest {
        user.setId(1L);
        user.setUsername("testuser");
 
-       laptop = new Item();
-       laptop.setId(1L);
-       laptop.setTitle("Laptop");
-       laptop.setPrice(999.99);
-
-       smartphone = new Item();
-       smartphone.setId(2L);
-       smartphone.setTitle("Smartphone");
-       smartphone.setPrice(599.99);
+       laptop = withId(1L, laptop());
+       smartphone = withId(2L, smartphone());
 
        order = new Order();
        order.setId(1L);
@@ -78,6 +80,11 @@ class OrderServiceTest {
    @DisplayName("Create Order From Cart Tests")
    class CreateOrderFromCartTests {
 
+       @BeforeEach
+       void setUpStock() {
+           lenient().when(stockReservationService.reserve(any())).thenReturn(Mono.empty());
+       }
+
        @Test
        @DisplayName("Should create order with valid items")
        void createOrderFromCart_WithValidItems_ShouldCreateOrder() {
@@ -87,10 +94,10 @@ class OrderServiceTest {
                savedOrder.setId(1L);
                return Mono.just(savedOrder);
            });
-           when(orderItemRepository.save(any(OrderItem.class))).thenAnswer(invocation -> {
-               OrderItem savedOrderItem = invocation.getArgument(0);
-               savedOrderItem.setId(1L);
-               return Mono.just(savedOrderItem);
+           when(orderItemRepository.insertAll(anyList())).thenAnswer(invocation -> {
+               List<OrderItem> savedOrderItems = invocation.getArgument(0);
+               savedOrderItems.forEach(savedOrderItem -> savedOrderItem.setId(1L));
+               return Flux.fromIterable(savedOrderItems);
            });
 
            Mono<Order> resultMono = orderService.createOrderFromCart(cartItems, user);
@@ -99,7 +106,7 @@ class OrderServiceTest {
                    .assertNext(result -> {
                        assertThat(result).isNotNull();
                        assertThat(result.getUserId()).isEqualTo(user.getId());
-                       assertThat(result.getStatus()).isEqualTo("PROCESSING");
+                       assertThat(result.getStatus()).isEqualTo(Order.STATUS_PAYMENT_PENDING);
                        assertThat(result.getItems()).hasSize(2);
 
                        assertThat(result.getOrderDate()).isNotNull();
@@ -119,7 +126,8 @@ class OrderServiceTest {
 
            verify(itemService).getItemByIds(any());
            verify(orderRepository).save(any(Order.class));
-           verify(orderItemRepository, times(2)).save(any(OrderItem.class));
+           verify(orderItemRepository).insertAll(argThat(lines -> lines.size() == 2));
+           verify(orderItemRepository, never()).save(any(OrderItem.class));
        }
 
        @Test
@@ -139,6 +147,34 @@ class OrderServiceTest {
                    .verifyComplete();
 
            verify(orderRepository).save(any(Order.class));
+           verify(orderItemRepository, never()).insertAll(anyList());
+       }
+
+       @Test
+       @DisplayName("Should fail without saving anything when stock is short")
+       void createOrderFromCart_WithInsufficientStock_ShouldFailFast() {
+           when(stockReservationService.reserve(cartItems))
+                   .thenReturn(Mono.error(new InsufficientStockException(List.of(1L))));
+
+           StepVerifier.create(orderService.createOrderFromCart(cartItems, user))
+                   .expectError(InsufficientStockException.class)
+                   .verify();
+
+           verify(orderRepository, never()).save(any(Order.class));
+           verify(orderItemRepository, never()).insertAll(anyList());
+       }
+
+       @Test
+       @DisplayName("Should give back hot stock when saving the order fails")
+       void createOrderFromCart_WhenSaveFails_ShouldReleaseHotStock() {
+           when(orderRepository.save(any(Order.class))).thenReturn(Mono.error(new RuntimeException("Database error")));
+           when(stockReservationService.releaseHot(cartItems)).thenReturn(Mono.empty());
+
+           StepVerifier.create(orderService.createOrderFromCart(cartItems, user))
+                   .expectErrorMessage("Database error")
+                   .verify();
+
+           verify(stockReservationService).releaseHot(cartItems);
        }
 
        @Test
@@ -150,10 +186,10 @@ class OrderServiceTest {
                savedOrder.setId(1L);
                return Mono.just(savedOrder);
            });
-           when(orderItemRepository.save(any(OrderItem.class))).thenAnswer(invocation -> {
-               OrderItem savedOrderItem = invocation.getArgument(0);
-               savedOrderItem.setId(1L);
-               return Mono.just(savedOrderItem);
+           when(orderItemRepository.insertAll(anyList())).thenAnswer(invocation -> {
+               List<OrderItem> savedOrderItems = invocation.getArgument(0);
+               savedOrderItems.forEach(savedOrderItem -> savedOrderItem.setId(1L));
+               return Flux.fromIterable(savedOrderItems);
            });
 
            Mono<Order> resultMono = orderService.createOrderFromCart(cartItems, user);
@@ -175,10 +211,10 @@ class OrderServiceTest {
                savedOrder.setId(1L);
                return Mono.just(savedOrder);
            });
-           when(orderItemRepository.save(any(OrderItem.class))).thenAnswer(invocation -> {
-               OrderItem savedOrderItem = invocation.getArgument(0);
-               savedOrderItem.setId(1L);
-               return Mono.just(savedOrderItem);
+           when(orderItemRepository.insertAll(anyList())).thenAnswer(invocation -> {
+               List<OrderItem> savedOrderItems = invocation.getArgument(0);
+               savedOrderItems.forEach(savedOrderItem -> savedOrderItem.setId(1L));
+               return Flux.fromIterable(savedOrderItems);
            });
 
            Mono<Order> resultMono = orderService.createOrderFromCart(cartItems, user);
@@ -193,6 +229,56 @@ class OrderServiceTest {
        }
    }
 
+   @Nested
+   @DisplayName("Cancel Order Tests")
+   class CancelOrderTests {
+
+       @BeforeEach
+       void setUpPendingOrder() {
+           order.setStatus(Order.STATUS_PAYMENT_PENDING);
+           order.setItems(List.of(orderItem(1L, laptop, 2), orderItem(1L, smartphone, 1)));
+       }
+
+       @Test
+       @DisplayName("Should delete the order and put its stock back")
+       void cancelOrder_ShouldDeleteOrderAndReleaseStock() {
+           when(orderRepository.deleteByIdAndStatus(1L, Order.STATUS_PAYMENT_PENDING)).thenReturn(Mono.just(1));
+           when(stockReservationService.release(Map.of(1L, 2, 2L, 1))).thenReturn(Mono.empty());
+
+           StepVerifier.create(orderService.cancelOrder(order))
+                   .expectNext(true)
+                   .verifyComplete();
+
+           verify(stockReservationService).release(Map.of(1L, 2, 2L, 1));
+       }
+
+       @Test
+       @DisplayName("Should put the stock back once when the same order is cancelled twice")
+       void cancelOrder_Twice_ShouldReleaseStockOnce() {
+           when(orderRepository.deleteByIdAndStatus(1L, Order.STATUS_PAYMENT_PENDING))
+                   .thenReturn(Mono.just(1), Mono.just(0));
+           when(stockReservationService.release(Map.of(1L, 2, 2L, 1))).thenReturn(Mono.empty());
+
+           StepVerifier.create(orderService.cancelOrder(order).concatWith(orderService.cancelOrder(order)))
+                   .expectNext(true, false)
+                   .verifyComplete();
+
+           verify(stockReservationService, times(1)).release(any());
+       }
+
+       @Test
+       @DisplayName("Should not cancel an order that was already paid")
+       void cancelOrder_AfterMarkPaid_ShouldKeepStock() {
+           when(orderRepository.deleteByIdAndStatus(1L, Order.STATUS_PAYMENT_PENDING)).thenReturn(Mono.just(0));
+
+           StepVerifier.create(orderService.cancelOrder(order))
+                   .expectNext(false)
+                   .verifyComplete();
+
+           verify(stockReservationService, never()).release(any());
+       }
+   }
+
    @Nested
    @DisplayName("Get User Orders Tests")
    class GetUserOrdersTests {
@@ -202,7 +288,7 @@ class OrderServiceTest {
        void getUserOrders_WithValidUser_ShouldReturnOrders() {
            Flux<Order> expectedOrders = Flux.just(order);
            when(orderRepository.findByUserId(user.getId())).thenReturn(expectedOrders);
-           when(orderItemRepository.findByOrderId(order.getId())).thenReturn(Flux.empty());
+           when(orderItemRepository.findByOrderIdIn(Set.of(order.getId()))).thenReturn(Flux.empty());
            when(itemService.getItemByIds(any())).thenReturn(Flux.empty());
 
            Flux<Order> resultFlux = orderService.getUserOrders(user);
@@ -216,7 +302,35 @@ class OrderServiceTest {
                    .verifyComplete();
 
            verify(orderRepository).findByUserId(user.getId());
-           verify(orderItemRepository).findByOrderId(order.getId());
+           verify(orderItemRepository).findByOrderIdIn(Set.of(order.getId()));
+       }
+
+       @Test
+       @DisplayName("Should load lines and items of all orders in one batch")
+       void getUserOrders_WithManyOrders_ShouldLoadInOneBatch() {
+           Order secondOrder = new Order();
+           secondOrder.setId(2L);
+           secondOrder.setUserId(user.getId());
+           when(orderRepository.findByUserId(user.getId())).thenReturn(Flux.just(order, secondOrder));
+           when(orderItemRepository.findByOrderIdIn(Set.of(1L, 2L))).thenReturn(Flux.just(
+                   orderItem(1L, laptop, 2), orderItem(1L, smartphone, 1), orderItem(2L, laptop, 1)));
+           when(itemService.getItemByIds(Set.of(1L, 2L))).thenReturn(Flux.just(laptop, smartphone));
+
+           StepVerifier.create(orderService.getUserOrders(user))
+                   .assertNext(result -> {
+                       assertThat(result.getId()).isEqualTo(1L);
+                       assertThat(result.getItems()).extracting(OrderItem::getItem).containsExactly(laptop, smartphone);
+                   })
+                   .assertNext(result -> {
+                       assertThat(result.getId()).isEqualTo(2L);
+                       assertThat(result.getItems()).extracting(OrderItem::getItem).containsExactly(laptop);
+                       assertThat(result.getItems().get(0).getOrder()).isSameAs(secondOrder);
+                   })
+                   .verifyComplete();
+
+           verify(orderItemRepository).findByOrderIdIn(Set.of(1L, 2L));
+           verify(itemService, times(1)).getItemByIds(any());
+           verify(orderItemRepository, never()).findByOrderId(any());
        }
 
        @Test
@@ -299,4 +413,13 @@ class OrderServiceTest {
                    .verify();
        }
    }
-} 
\ No newline at end of file
+
+   private static OrderItem orderItem(Long orderId, Item item, int quantity) {
+       OrderItem orderItem = new OrderItem();
+       orderItem.setOrderId(orderId);
+       orderItem.setItemId(item.getId());
+       orderItem.setPrice(item.getPrice());
+       orderItem.setQuantity(quantity);
+       return orderItem;
+   }
+}
@@ -0,0 +1,73 @@
+package io.github.danjos.intershop.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PaymentBatcher Tests")
+class PaymentBatcherTest {
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    private Mono<List<PaymentOutcome>> approveEvenAmounts(List<PaymentBatcher.PendingPayment> payments) {
+        batches.add(payments.stream().map(PaymentBatcher.PendingPayment::orderId).toList());
+        return Mono.just(payments.stream().map(payment -> PaymentOutcome.of(payment.amount() % 2 == 0)).toList());
+    }
+
+    @Test
+    @DisplayName("Should send concurrent payments as one batch and route each result back")
+    void submit_WithinWindow_ShouldSendOneBatch() {
+        PaymentBatcher batcher = new PaymentBatcher(this::approveEvenAmounts, Duration.ofMillis(50), 10, Schedulers.parallel());
+
+        StepVerifier.create(Flux.range(1, 4)
+                        .flatMapSequential(i -> batcher.submit(i, "order-" + i)))
+                .expectNext(PaymentOutcome.DECLINED, PaymentOutcome.APPROVED, PaymentOutcome.DECLINED, PaymentOutcome.APPROVED)
+                .verifyComplete();
+
+        assertThat(batches).containsExactly(List.of("order-1", "order-2", "order-3", "order-4"));
+    }
+
+    @Test
+    @DisplayName("Should send a full batch without waiting for the window")
+    void submit_MaxSizeReached_ShouldSendImmediately() {
+        PaymentBatcher batcher = new PaymentBatcher(this::approveEvenAmounts, Duration.ofMinutes(1), 2, Schedulers.parallel());
+
+        StepVerifier.create(Flux.range(1, 4)
+                        .flatMapSequential(i -> batcher.submit(i, "order-" + i)))
+                .expectNext(PaymentOutcome.DECLINED, PaymentOutcome.APPROVED, PaymentOutcome.DECLINED, PaymentOutcome.APPROVED)
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(batches).containsExactly(List.of("order-1", "order-2"), List.of("order-3", "order-4"));
+    }
+
+    @Test
+    @DisplayName("Should report payments missing from the answer as unknown")
+    void submit_ShortAnswer_ShouldBeUnknown() {
+        PaymentBatcher batcher = new PaymentBatcher(payments -> Mono.just(List.of(PaymentOutcome.APPROVED)),
+                Duration.ofMillis(50), 10, Schedulers.parallel());
+
+        StepVerifier.create(Flux.range(1, 2)
+                        .flatMapSequential(i -> batcher.submit(i, "order-" + i)))
+                .expectNext(PaymentOutcome.APPROVED, PaymentOutcome.UNKNOWN)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should fail every payment of a batch whose call fails")
+    void submit_SenderFails_ShouldPropagateError() {
+        PaymentBatcher batcher = new PaymentBatcher(payments -> Mono.error(new IllegalStateException("down")),
+                Duration.ofMillis(10), 10, Schedulers.parallel());
+
+        StepVerifier.create(batcher.submit(10.0, "order-1"))
+                .verifyError(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.danjos.intershop.service;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "intershop.payment.client.response-timeout=200ms",
+        "intershop.payment.client.hedge-delay=150ms",
+        "intershop.payment.client.batch.enabled=false",
+        "intershop.payment.circuit-breaker.call-timeout=300ms",
+        "intershop.payment.circuit-breaker.window-size=4",
+        "intershop.payment.circuit-breaker.open-duration=1m"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+@DisplayName("PaymentClientService Circuit Breaker Tests")
+class PaymentClientServiceCircuitBreakerTest {
+    private static final WireMockServer paymentService = new WireMockServer(wireMockConfig().dynamicPort());
+
+    static {
+        paymentService.start();
+    }
+
+    @Autowired
+    private PaymentClientService paymentClientService;
+
+    @Autowired
+    private ReactiveResilience4JCircuitBreakerFactory circuitBreakerFactory;
+
+    @DynamicPropertySource
+    static void paymentServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("payment.service.url", paymentService::baseUrl);
+    }
+
+    @AfterAll
+    static void stopPaymentService() {
+        paymentService.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        paymentService.resetAll();
+        circuitBreakerFactory.getCircuitBreakerRegistry().find("payment").ifPresent(CircuitBreaker::reset);
+        paymentClientService.evictBalance();
+    }
+
+    @Test
+    @DisplayName("Should read the balance from the payment service")
+    void getBalance_HealthyService_ShouldReturnBalance() {
+        paymentService.stubFor(get("/api/payment/balance")
+                .willReturn(okJson("{\"balance\": 1500.0}")));
+
+        StepVerifier.create(paymentClientService.getBalance())
+                .expectNext(1500.0)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should fall back to a zero balance instead of waiting for a slow service")
+    void getBalance_SlowService_ShouldTimeOutToFallback() {
+        paymentService.stubFor(get("/api/payment/balance")
+                .willReturn(okJson("{\"balance\": 1500.0}").withFixedDelay(5_000)));
+
+        StepVerifier.create(paymentClientService.getBalance())
+                .expectNext(0.0)
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    @DisplayName("Should stop calling a failing service once the breaker opens")
+    void getBalance_FailingService_ShouldOpenCircuit() {
+        paymentService.stubFor(get("/api/payment/balance")
+                .willReturn(serverError()));
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(paymentClientService.getBalance())
+                    .expectNext(0.0)
+                    .verifyComplete();
+        }
+        int requestsBeforeOpen = paymentService.getAllServeEvents().size();
+
+        StepVerifier.create(paymentClientService.getBalance())
+                .expectNext(0.0)
+                .expectComplete()
+                .verify(Duration.ofMillis(100));
+
+        assertThat(paymentService.getAllServeEvents()).hasSize(requestsBeforeOpen);
+    }
+
+    @Test
+    @DisplayName("Should not count a declined payment as a service failure")
+    void processPayment_Declined_ShouldKeepCircuitClosed() {
+        paymentService.stubFor(post("/api/payment/process")
+                .willReturn(badRequest().withBody("{\"success\": false}")));
+
+        for (int i = 0; i < 6; i++) {
+            StepVerifier.create(paymentClientService.processPayment(10.0, "order-" + i))
+                    .expectNext(PaymentOutcome.DECLINED)
+                    .verifyComplete();
+        }
+
+        assertThat(paymentService.getAllServeEvents()).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("Should report a payment that timed out as unknown, not declined")
+    void processPayment_SlowService_ShouldBeUnknown() {
+        paymentService.stubFor(post("/api/payment/process")
+                .willReturn(okJson("{\"success\": true}").withFixedDelay(5_000)));
+
+        StepVerifier.create(paymentClientService.processPayment(100.0, "order-1"))
+                .expectNext(PaymentOutcome.UNKNOWN)
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    @DisplayName("Should share one balance request between concurrent and repeated callers")
+    void getBalance_ConcurrentCallers_ShouldCoalesceIntoOneRequest() {
+        paymentService.stubFor(get("/api/payment/balance")
+                .willReturn(okJson("{\"balance\": 1500.0}").withFixedDelay(100)));
+
+        StepVerifier.create(Flux.range(0, 20)
+                        .flatMap(i -> paymentClientService.getBalance())
+                        .concatWith(paymentClientService.getBalance()))
+                .expectNextCount(21)
+                .verifyComplete();
+
+        paymentService.verify(1, getRequestedFor(urlEqualTo("/api/payment/balance")));
+    }
+
+    @Test
+    @DisplayName("Should refetch the balance after a successful payment")
+    void processPayment_Success_ShouldEvictCachedBalance() {
+        paymentService.stubFor(get("/api/payment/balance")
+                .willReturn(okJson("{\"balance\": 1500.0}")));
+        paymentService.stubFor(post("/api/payment/process")
+                .willReturn(okJson("{\"success\": true}")));
+
+        StepVerifier.create(paymentClientService.getBalance()
+                        .then(paymentClientService.processPayment(100.0, "order-1"))
+                        .then(paymentClientService.getBalance()))
+                .expectNext(1500.0)
+                .verifyComplete();
+
+        paymentService.verify(2, getRequestedFor(urlEqualTo("/api/payment/balance")));
+    }
+
+    @Test
+    @DisplayName("Should retry a failed payment under the same idempotency key")
+    void processPayment_TransientFailure_ShouldRetryWithSameKey() {
+        paymentService.stubFor(post("/api/payment/process").inScenario("retry")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(serviceUnavailable())
+                .willSetStateTo("recovered"));
+        paymentService.stubFor(post("/api/payment/process").inScenario("retry")
+                .whenScenarioStateIs("recovered")
+                .willReturn(okJson("{\"success\": true}")));
+
+        StepVerifier.create(paymentClientService.processPayment(100.0, "order-1"))
+                .expectNext(PaymentOutcome.APPROVED)
+                .verifyComplete();
+
+        paymentService.verify(2, postRequestedFor(urlEqualTo("/api/payment/process"))
+                .withHeader("Idempotency-Key", equalTo("order-1")));
+    }
+
+    @Test
+    @DisplayName("Should answer from a second attempt instead of waiting for a slow one")
+    void processPayment_SlowAttempt_ShouldBeHedged() {
+        paymentService.stubFor(post("/api/payment/process").inScenario("hedge")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(okJson("{\"success\": true}").withFixedDelay(5_000))
+                .willSetStateTo("fast"));
+        paymentService.stubFor(post("/api/payment/process").inScenario("hedge")
+                .whenScenarioStateIs("fast")
+                .willReturn(okJson("{\"success\": true}")));
+
+        StepVerifier.create(paymentClientService.processPayment(100.0, "order-1"))
+                .expectNext(PaymentOutcome.APPROVED)
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        paymentService.verify(2, postRequestedFor(urlEqualTo("/api/payment/process"))
+                .withHeader("Idempotency-Key", equalTo("order-1")));
+    }
+}
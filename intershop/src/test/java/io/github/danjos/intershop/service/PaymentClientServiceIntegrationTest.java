@@ -62,52 +62,40 @@ class PaymentClientServiceIntegrationTest {
     @Test
     @DisplayName("Should handle processPayment method call with connection error")
     void shouldHandleProcessPaymentMethodCall() {
-        Mono<Boolean> result = paymentClientService.processPayment(100.0, "test-order-123");
+        Mono<PaymentOutcome> result = paymentClientService.processPayment(100.0, "test-order-123");
 
         StepVerifier.create(result)
-                .assertNext(success -> {
-                    assertThat(success).isNotNull();
-                    assertThat(success).isFalse();
-                })
+                .expectNext(PaymentOutcome.UNKNOWN)
                 .verifyComplete();
     }
 
     @Test
     @DisplayName("Should handle processPayment with zero amount")
     void shouldHandleProcessPaymentWithZeroAmount() {
-        Mono<Boolean> result = paymentClientService.processPayment(0.0, "test-order-zero");
+        Mono<PaymentOutcome> result = paymentClientService.processPayment(0.0, "test-order-zero");
 
         StepVerifier.create(result)
-                .assertNext(success -> {
-                    assertThat(success).isNotNull();
-                    assertThat(success).isFalse();
-                })
+                .expectNext(PaymentOutcome.UNKNOWN)
                 .verifyComplete();
     }
 
     @Test
     @DisplayName("Should handle processPayment with large amount")
     void shouldHandleProcessPaymentWithLargeAmount() {
-        Mono<Boolean> result = paymentClientService.processPayment(999999.99, "test-order-large");
+        Mono<PaymentOutcome> result = paymentClientService.processPayment(999999.99, "test-order-large");
 
         StepVerifier.create(result)
-                .assertNext(success -> {
-                    assertThat(success).isNotNull();
-                    assertThat(success).isFalse();
-                })
+                .expectNext(PaymentOutcome.UNKNOWN)
                 .verifyComplete();
     }
 
     @Test
     @DisplayName("Should handle processPayment with negative amount")
     void shouldHandleProcessPaymentWithNegativeAmount() {
-        Mono<Boolean> result = paymentClientService.processPayment(-100.0, "test-order-negative");
+        Mono<PaymentOutcome> result = paymentClientService.processPayment(-100.0, "test-order-negative");
 
         StepVerifier.create(result)
-                .assertNext(success -> {
-                    assertThat(success).isNotNull();
-                    assertThat(success).isFalse();
-                })
+                .expectNext(PaymentOutcome.UNKNOWN)
                 .verifyComplete();
     }
 }
@@ -0,0 +1,29 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.payment.model.PaymentBatchResult;
+import io.github.danjos.intershop.payment.model.PaymentResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PaymentOutcome Tests")
+class PaymentOutcomeTest {
+
+    @Test
+    @DisplayName("Should read a batch result as approved, declined or unknown by its status")
+    void of_BatchResult_ShouldMapStatus() {
+        assertThat(PaymentOutcome.of(result(200, true))).isEqualTo(PaymentOutcome.APPROVED);
+        assertThat(PaymentOutcome.of(result(400, false))).isEqualTo(PaymentOutcome.DECLINED);
+        assertThat(PaymentOutcome.of(result(422, false))).isEqualTo(PaymentOutcome.DECLINED);
+        assertThat(PaymentOutcome.of(result(503, false))).isEqualTo(PaymentOutcome.UNKNOWN);
+        assertThat(PaymentOutcome.of(new PaymentBatchResult().orderId("order-1"))).isEqualTo(PaymentOutcome.UNKNOWN);
+    }
+
+    private static PaymentBatchResult result(int status, boolean success) {
+        return new PaymentBatchResult()
+                .orderId("order-1")
+                .status(status)
+                .payment(success ? new PaymentResponse().success(true) : null);
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.danjos.intershop.service;
+
+import io.github.danjos.intershop.model.Order;
+import io.github.danjos.intershop.model.OrderItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentSettlementJob Tests")
+class PaymentSettlementJobTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PaymentClientService paymentClientService;
+
+    private PaymentSettlementJob settlementJob;
+
+    @BeforeEach
+    void setUp() {
+        settlementJob = new PaymentSettlementJob(orderService, paymentClientService, Duration.ZERO, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should replay each pending payment under its order key and settle it by outcome")
+    void settle_PendingOrders_ShouldFollowOutcome() {
+        Order approved = pendingOrder(1L, 100.0);
+        Order declined = pendingOrder(2L, 200.0);
+        Order unknown = pendingOrder(3L, 300.0);
+        when(orderService.getPaymentPendingOrders(any())).thenReturn(Flux.just(approved, declined, unknown));
+        when(paymentClientService.processPayment(100.0, "order-1")).thenReturn(Mono.just(PaymentOutcome.APPROVED));
+        when(paymentClientService.processPayment(200.0, "order-2")).thenReturn(Mono.just(PaymentOutcome.DECLINED));
+        when(paymentClientService.processPayment(300.0, "order-3")).thenReturn(Mono.just(PaymentOutcome.UNKNOWN));
+        when(orderService.markPaid(approved)).thenReturn(Mono.just(true));
+        when(orderService.cancelOrder(declined)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(settlementJob.settle())
+                .verifyComplete();
+
+        verify(orderService).markPaid(approved);
+        verify(orderService).cancelOrder(declined);
+        verify(orderService, never()).markPaid(unknown);
+        verify(orderService, never()).cancelOrder(unknown);
+    }
+
+    private static Order pendingOrder(Long id, double price) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItemId(id);
+        orderItem.setQuantity(1);
+        orderItem.setPrice(price);
+
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(Order.STATUS_PAYMENT_PENDING);
+        order.setItems(List.of(orderItem));
+        return order;
+    }
+}
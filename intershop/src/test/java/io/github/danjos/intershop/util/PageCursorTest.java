@@ -0,0 +1,54 @@
+package io.github.danjos.intershop.util;
+
+import io.github.danjos.intershop.model.Item;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static io.github.danjos.intershop.ItemFixtures.laptop;
+import static io.github.danjos.intershop.ItemFixtures.withId;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PageCursor Tests")
+class PageCursorTest {
+
+    @Test
+    @DisplayName("Should decode what it encodes for every sort")
+    void decode_EncodedCursor_ShouldRoundTrip() {
+        Item last = withId(7L, laptop());
+
+        for (String sort : new String[] {"ALPHA", "PRICE", "NO"}) {
+            PageCursor cursor = PageCursor.after(sort, 2, last);
+
+            assertThat(PageCursor.decode(cursor.encode())).contains(cursor);
+        }
+        assertThat(PageCursor.decode(PageCursor.after("PRICE", 2, last).encode()).get().priceValue())
+                .isEqualByComparingTo(new BigDecimal("999.99"));
+    }
+
+    @Test
+    @DisplayName("Should reject cursors with a bad page, sort or value")
+    void decode_InvalidFields_ShouldBeEmpty() {
+        assertThat(PageCursor.decode(token("ALPHA|0|1|Laptop"))).isEmpty();
+        assertThat(PageCursor.decode(token("ID|-1|1|"))).isEmpty();
+        assertThat(PageCursor.decode(token("NAME|2|1|Laptop"))).isEmpty();
+        assertThat(PageCursor.decode(token("PRICE|2|1|cheap"))).isEmpty();
+        assertThat(PageCursor.decode(token("ID|2|1|5"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject tokens that are not cursors at all")
+    void decode_Garbage_ShouldBeEmpty() {
+        assertThat(PageCursor.decode("not base64!")).isEmpty();
+        assertThat(PageCursor.decode(token("ALPHA|2|1"))).isEmpty();
+        assertThat(PageCursor.decode(token("ALPHA|two|1|Laptop"))).isEmpty();
+        assertThat(PageCursor.decode(token("ALPHA|2|x|Laptop"))).isEmpty();
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -35,6 +35,8 @@ CREATE TABLE IF NOT EXISTS order_items (
     FOREIGN KEY (item_id) REFERENCES items(id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_items_title_id ON items(title, id);
+CREATE INDEX IF NOT EXISTS idx_items_price_id ON items(price, id);
 CREATE INDEX IF NOT EXISTS idx_orders_user ON orders(user_id);
 CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items(order_id);
 CREATE INDEX IF NOT EXISTS idx_order_items_item ON order_items(item_id);
\ No newline at end of file
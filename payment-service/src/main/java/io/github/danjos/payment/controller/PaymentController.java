@@ -1,70 +1,48 @@
 package io.github.danjos.payment.controller;
 
 import io.github.danjos.payment.domain.BalanceResponse;
+import io.github.danjos.payment.domain.PaymentBatchRequest;
+import io.github.danjos.payment.domain.PaymentBatchResponse;
 import io.github.danjos.payment.domain.PaymentRequest;
 import io.github.danjos.payment.domain.PaymentResponse;
+import io.github.danjos.payment.service.PaymentProcessor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
-import java.time.OffsetDateTime;
-import java.util.UUID;
-
 @RestController
 @RequestMapping("/api/payment")
+@RequiredArgsConstructor
 @Slf4j
 public class PaymentController {
 
-    @Value("${payment.initial.balance:1000.00}")
-    private Double initialBalance;
-
-    @Value("${payment.currency:RUB}")
-    private String currency;
-
-    private Double currentBalance;
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
-    public PaymentController() {
-        this.currentBalance = 1000.00; // Default value
-    }
+    private final PaymentProcessor paymentProcessor;
 
     @GetMapping("/balance")
     public Mono<ResponseEntity<BalanceResponse>> getBalance() {
-        log.info("Getting balance: {}", currentBalance);
-        
-        BalanceResponse response = new BalanceResponse()
-                .balance(currentBalance)
-                .currency(currency)
-                .timestamp(OffsetDateTime.now());
-        
-        return Mono.just(ResponseEntity.ok(response));
+        return Mono.just(ResponseEntity.ok(paymentProcessor.getBalance()));
     }
 
+    /**
+     * Payments are idempotent per {@code Idempotency-Key} header, or per order id without one: a repeated
+     * request gets the original response, so clients may retry and hedge safely.
+     */
     @PostMapping("/process")
-    public Mono<ResponseEntity<PaymentResponse>> processPayment(@RequestBody PaymentRequest request) {
-        log.info("Processing payment: amount={}, orderId={}", request.getAmount(), request.getOrderId());
-        
-        Double amount = request.getAmount();
-        
-        if (currentBalance < amount) {
-            log.warn("Insufficient funds: required={}, available={}", amount, currentBalance);
-            return Mono.just(ResponseEntity.badRequest().build());
-        }
-        
-        // Process payment
-        currentBalance = currentBalance - amount;
-        String transactionId = "txn-" + UUID.randomUUID().toString().substring(0, 8);
-        
-        log.info("Payment processed successfully: transactionId={}, newBalance={}", transactionId, currentBalance);
-        
-        PaymentResponse response = new PaymentResponse()
-                .success(true)
-                .transactionId(transactionId)
-                .newBalance(currentBalance)
-                .message("Платеж успешно обработан")
-                .timestamp(OffsetDateTime.now());
-        
-        return Mono.just(ResponseEntity.ok(response));
+    public Mono<ResponseEntity<PaymentResponse>> processPayment(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody PaymentRequest request) {
+        return paymentProcessor.processPayment(idempotencyKey, request)
+                .map(result -> ResponseEntity.status(result.getStatus()).body(result.getPayment()));
+    }
+
+    @PostMapping("/process-batch")
+    public Mono<ResponseEntity<PaymentBatchResponse>> processPaymentBatch(@RequestBody PaymentBatchRequest request) {
+        return paymentProcessor.processPaymentBatch(request.getPayments())
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
     }
 }
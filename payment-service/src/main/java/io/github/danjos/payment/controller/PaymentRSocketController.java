@@ -0,0 +1,43 @@
+package io.github.danjos.payment.controller;
+
+import io.github.danjos.payment.domain.BalanceResponse;
+import io.github.danjos.payment.domain.PaymentBatchRequest;
+import io.github.danjos.payment.domain.PaymentBatchResponse;
+import io.github.danjos.payment.domain.PaymentBatchResult;
+import io.github.danjos.payment.domain.PaymentRequest;
+import io.github.danjos.payment.service.PaymentProcessor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+/**
+ * The payment API over RSocket (request-response), served on {@code spring.rsocket.server.port}.
+ * Messages are the OpenAPI models, encoded as CBOR when the client asks for {@code application/cbor}.
+ * Every payment answers with a {@link PaymentBatchResult}, whose status matches what
+ * {@code /api/payment/process} would return.
+ */
+@Controller
+@RequiredArgsConstructor
+public class PaymentRSocketController {
+    public static final String BALANCE_ROUTE = "payment.balance";
+    public static final String PROCESS_ROUTE = "payment.process";
+    public static final String PROCESS_BATCH_ROUTE = "payment.process-batch";
+
+    private final PaymentProcessor paymentProcessor;
+
+    @MessageMapping(BALANCE_ROUTE)
+    public Mono<BalanceResponse> getBalance() {
+        return Mono.fromSupplier(paymentProcessor::getBalance);
+    }
+
+    @MessageMapping(PROCESS_ROUTE)
+    public Mono<PaymentBatchResult> processPayment(PaymentRequest request) {
+        return paymentProcessor.processPayment(null, request);
+    }
+
+    @MessageMapping(PROCESS_BATCH_ROUTE)
+    public Mono<PaymentBatchResponse> processPaymentBatch(PaymentBatchRequest request) {
+        return paymentProcessor.processPaymentBatch(request.getPayments());
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.danjos.payment.idempotency;
+
+/**
+ * An idempotency key was sent again with a different request than the one it was first used for.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key " + key + " was already used for a different request");
+    }
+}
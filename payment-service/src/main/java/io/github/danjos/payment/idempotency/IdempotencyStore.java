@@ -0,0 +1,126 @@
+package io.github.danjos.payment.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of an operation per idempotency key, so a retried or hedged request gets the
+ * original result instead of running again. A duplicate that arrives while the first attempt is still
+ * running waits for it; the operation itself always runs to completion. Failures and results
+ * rejected by the {@code remember} predicate are forgotten, so the next attempt runs again.
+ * <p>
+ * Each key carries a fingerprint of its request, and a duplicate with a different fingerprint fails
+ * with {@link IdempotencyKeyReusedException} instead of getting someone else's result. The store
+ * is bounded: the least recently used key is evicted once {@code max-entries} is reached, and keys
+ * expire after {@code ttl}. It lives in memory; outcomes that must survive a restart are put back
+ * with {@link #remember}.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+    private final Map<String, Entry> entries;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public IdempotencyStore(
+            @Value("${payment.idempotency.max-entries:100000}") int maxEntries,
+            @Value("${payment.idempotency.ttl:24h}") Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    IdempotencyStore(int maxEntries, Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private record Entry(CompletableFuture<Object> result, Object fingerprint, long expiresAt) {
+    }
+
+    /**
+     * @param fingerprint what identifies the request behind the key, compared with {@code equals}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String key, Object fingerprint, Supplier<Mono<T>> operation,
+                               Predicate<? super T> remember) {
+        return Mono.defer(() -> {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            CompletableFuture<Object> existing;
+            long now = clock.millis();
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null && entry.expiresAt() > now) {
+                    if (!Objects.equals(entry.fingerprint(), fingerprint)) {
+                        return Mono.error(new IdempotencyKeyReusedException(key));
+                    }
+                    existing = entry.result();
+                } else {
+                    existing = null;
+                    entries.put(key, new Entry(result, fingerprint, now + ttl.toMillis()));
+                }
+            }
+            if (existing == null) {
+                // Runs detached from the caller: a request cancelled mid-payment must still record the
+                // outcome, or a duplicate would charge again
+                Mono.defer(operation)
+                        .doOnSuccess(value -> {
+                            if (value == null || !remember.test(value)) {
+                                forget(key, result);
+                            }
+                            result.complete(value);
+                        })
+                        .subscribe(value -> {
+                        }, e -> {
+                            forget(key, result);
+                            result.completeExceptionally(e);
+                        });
+                existing = result;
+            } else {
+                log.debug("Replaying result for idempotency key {}", key);
+            }
+            // A copy, so a cancelled caller cannot cancel the shared result
+            return Mono.fromFuture(existing.copy()).map(value -> (T) value);
+        });
+    }
+
+    /**
+     * Records an outcome that was reached elsewhere, e.g. one replayed from the payment journal.
+     */
+    public void remember(String key, Object fingerprint, Object result) {
+        synchronized (entries) {
+            entries.put(key, new Entry(CompletableFuture.completedFuture(result), fingerprint,
+                    clock.millis() + ttl.toMillis()));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void forget(String key, CompletableFuture<Object> result) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.result() == result) {
+                entries.remove(key);
+            }
+        }
+    }
+}
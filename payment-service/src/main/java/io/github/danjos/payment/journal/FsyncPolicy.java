@@ -0,0 +1,13 @@
+package io.github.danjos.payment.journal;
+
+/**
+ * When an appended record counts as durable.
+ */
+public enum FsyncPolicy {
+    /** Force the log after every record before acknowledging it. */
+    ALWAYS,
+    /** Group commit: one background force covers every record appended while the previous one ran. */
+    BATCH,
+    /** Leave flushing to the operating system; a crash may lose the latest records. */
+    NEVER
+}
@@ -0,0 +1,7 @@
+package io.github.danjos.payment.journal;
+
+/**
+ * One balance change: the signed amount in minor units and the payment reference it belongs to.
+ */
+public record JournalRecord(long sequence, String accountId, long delta, String reference) {
+}
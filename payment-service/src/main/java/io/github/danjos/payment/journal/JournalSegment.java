@@ -0,0 +1,231 @@
+package io.github.danjos.payment.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * A fixed-size, memory-mapped log file. Records are {@code [int length][int crc][body]} and are
+ * never split across segments; a zero length marks the end of the written data, and a record whose
+ * checksum does not match (a torn write) is treated the same way.
+ */
+final class JournalSegment {
+    private static final int MAGIC = 0x504A524E;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path path;
+    private final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private int position;
+    private int forcedPosition;
+    private long lastSequence;
+
+    private JournalSegment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int size) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, size);
+        buffer.force(0, HEADER_SIZE);
+        JournalSegment segment = new JournalSegment(path, firstSequence, channel, buffer);
+        segment.position = HEADER_SIZE;
+        segment.forcedPosition = HEADER_SIZE;
+        return segment;
+    }
+
+    /**
+     * Maps an existing segment and replays its valid records; the write position is left after the
+     * last valid record and everything behind it is zeroed so a torn tail cannot resurface.
+     */
+    static JournalSegment open(Path path, Consumer<JournalRecord> consumer) throws IOException {
+        String name = path.getFileName().toString();
+        long firstSequence = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a journal segment: " + path);
+        }
+        JournalSegment segment = new JournalSegment(path, firstSequence, channel, buffer);
+        segment.replay(consumer);
+        return segment;
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    int position() {
+        return position;
+    }
+
+    int forcedPosition() {
+        return forcedPosition;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    boolean hasRoom(int bodySize) {
+        return (long) position + RECORD_HEADER_SIZE + bodySize <= buffer.capacity();
+    }
+
+    static int bodySize(JournalRecord record) {
+        return 8 + 8 + 2 + utf8Length(record.accountId()) + 2 + utf8Length(record.reference());
+    }
+
+    void append(JournalRecord record, ByteBuffer scratch) {
+        scratch.clear();
+        scratch.putLong(record.sequence());
+        scratch.putLong(record.delta());
+        putString(scratch, record.accountId());
+        putString(scratch, record.reference());
+        scratch.flip();
+        CRC32C crc = new CRC32C();
+        crc.update(scratch.duplicate());
+        int length = scratch.remaining();
+        // The body goes in before the length so a reader never sees a length with a missing body
+        buffer.put(position + RECORD_HEADER_SIZE, scratch, 0, length);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, length);
+        position += RECORD_HEADER_SIZE + length;
+        lastSequence = record.sequence();
+    }
+
+    /**
+     * Flushes the written range up to {@code to}; safe to call without the append lock held.
+     */
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    void markForced(int to) {
+        forcedPosition = Math.max(forcedPosition, to);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Removes the records after {@code sequence} from the end of the segment: their bytes are zeroed
+     * and the write position moves back, so they are neither appended after nor replayed. Zeroing
+     * is not forced here; the caller does that once it knows the device can still take writes.
+     *
+     * @return the removed records, oldest first
+     */
+    List<JournalRecord> truncateAfter(long sequence) {
+        List<JournalRecord> removed = new ArrayList<>();
+        int[] cut = {position};
+        scan(HEADER_SIZE, (record, offset) -> {
+            if (record.sequence() > sequence) {
+                cut[0] = Math.min(cut[0], offset);
+                removed.add(record);
+            }
+        });
+        for (int i = cut[0]; i < position; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        position = cut[0];
+        forcedPosition = Math.min(forcedPosition, position);
+        lastSequence = Math.min(lastSequence, Math.max(sequence, firstSequence - 1));
+        return removed;
+    }
+
+    private void replay(Consumer<JournalRecord> consumer) {
+        int offset = scan(HEADER_SIZE, (record, recordOffset) -> {
+            consumer.accept(record);
+            lastSequence = record.sequence();
+        });
+        for (int i = offset; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        buffer.force();
+        position = offset;
+        forcedPosition = offset;
+    }
+
+    /**
+     * Reads the valid records from {@code offset} on, passing each with its offset, and returns the
+     * offset after the last one.
+     */
+    private int scan(int offset, ObjIntConsumer<JournalRecord> consumer) {
+        while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(offset + RECORD_HEADER_SIZE, length);
+            CRC32C crc = new CRC32C();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            long sequence = body.getLong();
+            long delta = body.getLong();
+            String accountId = getString(body);
+            consumer.accept(new JournalRecord(sequence, accountId, delta, getString(body)), offset);
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        return offset;
+    }
+
+    private static void putString(ByteBuffer target, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        target.putShort((short) bytes.length);
+        target.put(bytes);
+    }
+
+    private static String getString(ByteBuffer source) {
+        byte[] bytes = new byte[Short.toUnsignedInt(source.getShort())];
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.danjos.payment.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Net balance change of every account up to and including a journal sequence. Written to a
+ * temporary file, forced and then atomically renamed, so a crash leaves either the old or the new snapshot.
+ */
+record JournalSnapshot(long sequence, Map<String, Long> netChanges) {
+    private static final int MAGIC = 0x50534E50;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    static boolean isSnapshot(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    Path write(Path directory) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp));
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, crc))) {
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(netChanges.size());
+            for (Map.Entry<String, Long> entry : netChanges.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            out.flush();
+            DataOutputStream trailer = new DataOutputStream(file);
+            trailer.writeInt((int) crc.getValue());
+            trailer.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    static JournalSnapshot read(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path));
+             DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a journal snapshot: " + path);
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            Map<String, Long> netChanges = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                netChanges.put(in.readUTF(), in.readLong());
+            }
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(file).readInt() != expected) {
+                throw new IOException("Corrupt journal snapshot: " + path);
+            }
+            return new JournalSnapshot(sequence, netChanges);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package io.github.danjos.payment.journal;
+
+import io.github.danjos.payment.ledger.BalanceLedger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead journal of balance changes. Records are appended to memory-mapped segment files
+ * under one short lock, and {@link #append} completes once the record is durable according to the
+ * {@link FsyncPolicy}; with {@code batch} a single flusher thread forces everything appended while
+ * its previous force was running, so concurrent payments share one fsync.
+ * <p>
+ * Every {@code snapshot-every} records the net change per account is written to a snapshot, and
+ * segments already covered by the older of the two retained snapshots are deleted, so startup
+ * replays at most two snapshot intervals. An fsync failure closes the journal: payments then fail
+ * instead of being acknowledged without durability. The records whose append failed are removed
+ * from the segment and from the net changes, so a caller that undoes a failed payment in memory
+ * does not see it come back on the next startup.
+ */
+@Component
+@Slf4j
+public class PaymentJournal {
+    private static final int MAX_TEXT_BYTES = 1024;
+    private static final int RETAINED_SNAPSHOTS = 2;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long snapshotEvery;
+    private final BalanceLedger ledger;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingFlush = lock.newCondition();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private final List<JournalSegment> closedSegments = new ArrayList<>();
+    private final List<Long> retainedSnapshots = new ArrayList<>();
+    private final Map<String, Long> netChanges = new HashMap<>();
+    private final ByteBuffer scratch = ByteBuffer.allocate(8 + 8 + 2 + MAX_TEXT_BYTES + 2 + MAX_TEXT_BYTES);
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-journal-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private JournalSegment active;
+    private long nextSequence = 1;
+    private long appendedSequence;
+    private long durableSequence;
+    private long lastSnapshotSequence;
+    private long discardedAfter = Long.MAX_VALUE;
+    private List<JournalRecord> recoveredRecords = new ArrayList<>();
+    private boolean snapshotRunning;
+    private boolean running;
+    private Thread flusher;
+
+    public PaymentJournal(
+            @Value("${payment.journal.dir:data/journal}") Path directory,
+            @Value("${payment.journal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${payment.journal.fsync:batch}") FsyncPolicy fsyncPolicy,
+            @Value("${payment.journal.snapshot-every:100000}") long snapshotEvery,
+            BalanceLedger ledger) {
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.fsyncPolicy = fsyncPolicy;
+        this.snapshotEvery = snapshotEvery;
+        this.ledger = ledger;
+    }
+
+    private record Waiter(long sequence, CompletableFuture<Long> future) {
+    }
+
+    /**
+     * Loads the newest readable snapshot, replays the segments after it into the ledger and
+     * reopens the last segment for appending.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        long started = System.nanoTime();
+        JournalSnapshot snapshot = latestSnapshot();
+        netChanges.putAll(snapshot.netChanges());
+        long snapshotSequence = snapshot.sequence();
+
+        long lastSequence = snapshotSequence;
+        long replayed = 0;
+        for (Path path : list(JournalSegment::isSegment)) {
+            long[] applied = new long[1];
+            JournalSegment segment = JournalSegment.open(path, record -> {
+                recoveredRecords.add(record);
+                if (record.sequence() > snapshotSequence) {
+                    netChanges.merge(record.accountId(), record.delta(), Long::sum);
+                    applied[0]++;
+                }
+            });
+            replayed += applied[0];
+            lastSequence = Math.max(lastSequence, segment.lastSequence());
+            closedSegments.add(segment);
+        }
+        active = closedSegments.isEmpty()
+                ? JournalSegment.create(directory, lastSequence + 1, segmentSize)
+                : closedSegments.remove(closedSegments.size() - 1);
+
+        nextSequence = lastSequence + 1;
+        appendedSequence = lastSequence;
+        durableSequence = lastSequence;
+        lastSnapshotSequence = snapshotSequence;
+        ledger.restore(netChanges);
+        running = true;
+        if (fsyncPolicy == FsyncPolicy.BATCH) {
+            flusher = new Thread(this::flushLoop, "payment-journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+        log.info("Payment journal opened: snapshot at {}, {} records replayed, {} accounts, {} ms",
+                snapshotSequence, replayed, netChanges.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * The records of every retained segment read by {@link #open}, oldest first, including those the
+     * snapshot already covers. Handed out once, so they do not stay in memory.
+     */
+    public List<JournalRecord> takeRecoveredRecords() {
+        List<JournalRecord> records = recoveredRecords;
+        recoveredRecords = List.of();
+        return records;
+    }
+
+    /**
+     * Appends a balance change and completes with its sequence number once it is durable.
+     */
+    public CompletableFuture<Long> append(String accountId, long delta, String reference) {
+        if (textBytes(accountId) > MAX_TEXT_BYTES || textBytes(reference) > MAX_TEXT_BYTES) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Account id or reference is too long"));
+        }
+        lock.lock();
+        try {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Payment journal is closed"));
+            }
+            long sequence = nextSequence;
+            JournalRecord record = new JournalRecord(sequence, accountId, delta, reference);
+            if (!active.hasRoom(JournalSegment.bodySize(record))) {
+                roll(sequence);
+            }
+            active.append(record, scratch);
+            nextSequence++;
+            appendedSequence = sequence;
+            netChanges.merge(accountId, delta, Long::sum);
+            maybeSnapshot(sequence);
+
+            switch (fsyncPolicy) {
+                case ALWAYS -> {
+                    forceActive();
+                    durableSequence = sequence;
+                    return CompletableFuture.completedFuture(sequence);
+                }
+                case NEVER -> {
+                    return CompletableFuture.completedFuture(sequence);
+                }
+                default -> {
+                    CompletableFuture<Long> future = new CompletableFuture<>();
+                    waiters.add(new Waiter(sequence, future));
+                    pendingFlush.signal();
+                    return future;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            pendingFlush.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            flusher.join();
+        }
+        snapshotExecutor.shutdown();
+        snapshotExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        lock.lock();
+        try {
+            forceActive();
+            durableSequence = appendedSequence;
+            completeWaiters(appendedSequence, null);
+            for (JournalSegment segment : closedSegments) {
+                segment.close();
+            }
+            active.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            JournalSegment segment;
+            int from;
+            int to;
+            long target;
+            lock.lock();
+            try {
+                while (running && appendedSequence == durableSequence) {
+                    pendingFlush.await();
+                }
+                if (!running) {
+                    return;
+                }
+                segment = active;
+                from = segment.forcedPosition();
+                to = segment.position();
+                target = appendedSequence;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            RuntimeException failure = null;
+            try {
+                segment.force(from, to);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+
+            lock.lock();
+            try {
+                if (failure != null) {
+                    fail(failure);
+                    return;
+                }
+                segment.markForced(to);
+                durableSequence = Math.max(durableSequence, target);
+                completeWaiters(target, null);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void roll(long firstSequence) throws IOException {
+        forceActive();
+        // Everything outside the active segment is durable, so only it ever needs to be rolled back
+        durableSequence = appendedSequence;
+        completeWaiters(appendedSequence, null);
+        closedSegments.add(active);
+        active = JournalSegment.create(directory, firstSequence, segmentSize);
+    }
+
+    private void forceActive() {
+        int to = active.position();
+        active.force(active.forcedPosition(), to);
+        active.markForced(to);
+    }
+
+    private void maybeSnapshot(long sequence) {
+        if (snapshotEvery <= 0 || snapshotRunning || sequence - lastSnapshotSequence < snapshotEvery) {
+            return;
+        }
+        snapshotRunning = true;
+        JournalSnapshot snapshot = new JournalSnapshot(sequence, new HashMap<>(netChanges));
+        JournalSegment segment = active;
+        int to = segment.position();
+        snapshotExecutor.execute(() -> writeSnapshot(snapshot, segment, to));
+    }
+
+    private void writeSnapshot(JournalSnapshot snapshot, JournalSegment segment, int to) {
+        Path written = null;
+        try {
+            // Records covered by the snapshot must be durable before the snapshot is
+            segment.force(segment.forcedPosition(), to);
+            if (!coversDiscarded(snapshot)) {
+                written = snapshot.write(directory);
+                log.debug("Payment journal snapshot written at {}", snapshot.sequence());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Payment journal snapshot at {} failed: {}", snapshot.sequence(), e.getMessage());
+        }
+
+        List<Path> obsolete = new ArrayList<>();
+        List<JournalSegment> obsoleteSegments = new ArrayList<>();
+        lock.lock();
+        try {
+            snapshotRunning = false;
+            // Records it covers may have been discarded while it was being written
+            if (written != null && snapshot.sequence() > discardedAfter) {
+                obsolete.add(written);
+                written = null;
+            }
+            if (written != null) {
+                lastSnapshotSequence = snapshot.sequence();
+                retainedSnapshots.add(snapshot.sequence());
+                while (retainedSnapshots.size() > RETAINED_SNAPSHOTS) {
+                    obsolete.add(snapshotPath(retainedSnapshots.remove(0)));
+                }
+                long covered = retainedSnapshots.size() == RETAINED_SNAPSHOTS ? retainedSnapshots.get(0) : 0;
+                for (Iterator<JournalSegment> it = closedSegments.iterator(); it.hasNext(); ) {
+                    JournalSegment closed = it.next();
+                    if (closed.lastSequence() <= covered) {
+                        obsoleteSegments.add(closed);
+                        it.remove();
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            for (Path path : obsolete) {
+                Files.deleteIfExists(path);
+            }
+            for (JournalSegment closed : obsoleteSegments) {
+                closed.delete();
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete obsolete journal files: {}", e.getMessage());
+        }
+    }
+
+    private boolean coversDiscarded(JournalSnapshot snapshot) {
+        lock.lock();
+        try {
+            return snapshot.sequence() > discardedAfter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private JournalSnapshot latestSnapshot() throws IOException {
+        List<Path> snapshots = list(JournalSnapshot::isSnapshot);
+        snapshots.forEach(path -> retainedSnapshots.add(JournalSnapshot.sequenceOf(path)));
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                return JournalSnapshot.read(snapshots.get(i));
+            } catch (IOException e) {
+                log.warn("Skipping unreadable journal snapshot {}: {}", snapshots.get(i), e.getMessage());
+            }
+        }
+        return new JournalSnapshot(0, Map.of());
+    }
+
+    private Path snapshotPath(long sequence) {
+        return directory.resolve(String.format("snapshot-%020d.snap", sequence));
+    }
+
+    private List<Path> list(java.util.function.Predicate<Path> filter) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(filter)
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+        }
+    }
+
+    /**
+     * Called with the lock held: stops accepting appends, discards the records that were not
+     * acknowledged and fails every pending waiter.
+     */
+    private void fail(Throwable cause) {
+        log.error("Payment journal failed, rejecting further payments", cause);
+        running = false;
+        pendingFlush.signalAll();
+        discardUnacknowledged();
+        completeWaiters(Long.MAX_VALUE, cause instanceof IOException io ? new UncheckedIOException(io) : cause);
+    }
+
+    /**
+     * Records that were not acknowledged are all in the active segment, because rolling over forces
+     * it first. Their bytes may already have reached the file, so they are zeroed rather than just
+     * forgotten.
+     */
+    private void discardUnacknowledged() {
+        long acknowledged = fsyncPolicy == FsyncPolicy.NEVER ? appendedSequence : durableSequence;
+        if (appendedSequence <= acknowledged) {
+            return;
+        }
+        int written = active.position();
+        List<JournalRecord> discarded = active.truncateAfter(acknowledged);
+        discarded.forEach(record -> netChanges.merge(record.accountId(), -record.delta(), Long::sum));
+        discardedAfter = acknowledged;
+        appendedSequence = acknowledged;
+        nextSequence = acknowledged + 1;
+        try {
+            active.force(active.position(), written);
+        } catch (RuntimeException e) {
+            log.error("Could not force the removal of {} journal records after {}", discarded.size(), acknowledged, e);
+            return;
+        }
+        log.warn("Removed {} unacknowledged journal records after {}", discarded.size(), acknowledged);
+    }
+
+    private void completeWaiters(long upTo, Throwable failure) {
+        while (!waiters.isEmpty() && waiters.peek().sequence() <= upTo) {
+            Waiter waiter = waiters.poll();
+            if (failure == null) {
+                waiter.future().complete(waiter.sequence());
+            } else {
+                waiter.future().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static int textBytes(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
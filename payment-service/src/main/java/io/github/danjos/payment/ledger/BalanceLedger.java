@@ -0,0 +1,109 @@
+package io.github.danjos.payment.ledger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Account balances held as fixed-point longs in minor units (1/100 of the currency).
+ * Accounts are spread over independent stripes by id, and each balance is changed only by a
+ * compare-and-set loop, so a debit either applies against the value it checked or retries;
+ * two parallel payments can never both spend the same funds.
+ */
+@Component
+public class BalanceLedger {
+    public static final String DEFAULT_ACCOUNT = "default";
+    private static final int SCALE = 2;
+
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final long initialBalance;
+
+    public BalanceLedger(
+            @Value("${payment.initial.balance:1000.00}") BigDecimal initialBalance,
+            @Value("${payment.ledger.stripes:16}") int stripeCount) {
+        this.initialBalance = toMinorUnits(initialBalance);
+        this.stripes = newStripes(Integer.highestOneBit(Math.max(1, stripeCount) * 2 - 1));
+    }
+
+    public record DebitResult(boolean accepted, long balance) {
+    }
+
+    public long balance(String accountId) {
+        return account(accountId).get();
+    }
+
+    /**
+     * Subtracts the amount only if the account holds at least that much.
+     */
+    public DebitResult tryDebit(String accountId, long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Debit amount must not be negative: " + amount);
+        }
+        AtomicLong balance = account(accountId);
+        while (true) {
+            long current = balance.get();
+            if (current < amount) {
+                return new DebitResult(false, current);
+            }
+            if (balance.compareAndSet(current, current - amount)) {
+                return new DebitResult(true, current - amount);
+            }
+        }
+    }
+
+    public long credit(String accountId, long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Credit amount must not be negative: " + amount);
+        }
+        AtomicLong balance = account(accountId);
+        while (true) {
+            long current = balance.get();
+            long updated = Math.addExact(current, amount);
+            if (balance.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Sets each account to its opening balance plus the given net change; used when replaying the journal.
+     */
+    public void restore(Map<String, Long> netChanges) {
+        netChanges.forEach((accountId, change) -> account(accountId).set(Math.addExact(initialBalance, change)));
+    }
+
+    public static long toMinorUnits(double amount) {
+        return toMinorUnits(BigDecimal.valueOf(amount));
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static double toMajorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE).doubleValue();
+    }
+
+    private AtomicLong account(String accountId) {
+        return stripes[stripe(accountId)].computeIfAbsent(accountId, id -> new AtomicLong(initialBalance));
+    }
+
+    private int stripe(String accountId) {
+        int h = accountId.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentHashMap<String, AtomicLong>[] newStripes(int count) {
+        ConcurrentHashMap<String, AtomicLong>[] stripes = new ConcurrentHashMap[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        return stripes;
+    }
+}
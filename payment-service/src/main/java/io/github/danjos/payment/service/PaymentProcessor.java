@@ -0,0 +1,171 @@
+package io.github.danjos.payment.service;
+
+import io.github.danjos.payment.domain.BalanceResponse;
+import io.github.danjos.payment.domain.PaymentBatchResponse;
+import io.github.danjos.payment.domain.PaymentBatchResult;
+import io.github.danjos.payment.domain.PaymentRequest;
+import io.github.danjos.payment.domain.PaymentResponse;
+import io.github.danjos.payment.idempotency.IdempotencyKeyReusedException;
+import io.github.danjos.payment.idempotency.IdempotencyStore;
+import io.github.danjos.payment.journal.JournalRecord;
+import io.github.danjos.payment.journal.PaymentJournal;
+import io.github.danjos.payment.ledger.BalanceLedger;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Balance and payment operations shared by the HTTP and RSocket endpoints. A payment outcome is a
+ * {@link PaymentBatchResult}: the HTTP status the single-payment endpoint answers with, and the
+ * {@link PaymentResponse} for accepted payments.
+ */
+@Service
+@Slf4j
+public class PaymentProcessor {
+    private final BalanceLedger balanceLedger;
+    private final PaymentJournal paymentJournal;
+    private final IdempotencyStore idempotencyStore;
+    private final String currency;
+    private final int maxBatchSize;
+
+    public PaymentProcessor(
+            BalanceLedger balanceLedger,
+            PaymentJournal paymentJournal,
+            IdempotencyStore idempotencyStore,
+            @Value("${payment.currency:RUB}") String currency,
+            @Value("${payment.batch.max-size:100}") int maxBatchSize) {
+        this.balanceLedger = balanceLedger;
+        this.paymentJournal = paymentJournal;
+        this.idempotencyStore = idempotencyStore;
+        this.currency = currency;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * The idempotency store lives in memory, so the payments still in the journal are put back into
+     * it: a client retrying across a restart gets the original approval instead of a second debit.
+     * Journal references are order ids, which is also the key intershop sends.
+     */
+    @PostConstruct
+    void rememberJournaledPayments() {
+        int remembered = 0;
+        for (JournalRecord record : paymentJournal.takeRecoveredRecords()) {
+            if (record.delta() <= 0 && StringUtils.hasText(record.reference())) {
+                PaymentResponse response = approval(record.sequence(), null);
+                idempotencyStore.remember(record.reference(), -record.delta(),
+                        new PaymentBatchResult().orderId(record.reference()).status(HttpStatus.OK.value()).payment(response));
+                remembered++;
+            }
+        }
+        log.info("Remembered {} journaled payments for idempotency", remembered);
+    }
+
+    public BalanceResponse getBalance() {
+        double currentBalance = BalanceLedger.toMajorUnits(balanceLedger.balance(BalanceLedger.DEFAULT_ACCOUNT));
+        log.info("Getting balance: {}", currentBalance);
+        
+        return new BalanceResponse()
+                .balance(currentBalance)
+                .currency(currency)
+                .timestamp(OffsetDateTime.now());
+    }
+
+    /**
+     * Payments are idempotent per key, or per order id without one: a repeated request gets the
+     * original outcome, so clients may retry and hedge safely. A key repeated with a different
+     * amount is answered with 422 and charges nothing.
+     */
+    public Mono<PaymentBatchResult> processPayment(String idempotencyKey, PaymentRequest request) {
+        String key = StringUtils.hasText(idempotencyKey) ? idempotencyKey : request.getOrderId();
+        if (!StringUtils.hasText(key)) {
+            return process(request);
+        }
+        Long amount = request.getAmount() != null ? BalanceLedger.toMinorUnits(request.getAmount()) : null;
+        // Server errors are not remembered so that a retry can still succeed
+        return idempotencyStore.execute(key, amount, () -> process(request), result -> result.getStatus() < 500)
+                .onErrorResume(IdempotencyKeyReusedException.class, e -> {
+                    log.warn("Rejected payment for order {}: {}", request.getOrderId(), e.getMessage());
+                    return Mono.just(result(request, HttpStatus.UNPROCESSABLE_ENTITY, null));
+                });
+    }
+
+    /**
+     * Processes each payment exactly as {@link #processPayment} would, keyed by its order id, and
+     * reports the outcomes in request order. Journal appends of one batch share a group commit.
+     *
+     * @throws IllegalArgumentException (as an error signal) for an empty or oversized batch
+     */
+    public Mono<PaymentBatchResponse> processPaymentBatch(List<PaymentRequest> payments) {
+        if (payments == null || payments.isEmpty() || payments.size() > maxBatchSize) {
+            log.warn("Rejected payment batch of {} payments", payments == null ? 0 : payments.size());
+            return Mono.error(new IllegalArgumentException("A payment batch must hold 1 to " + maxBatchSize + " payments"));
+        }
+        log.debug("Processing payment batch of {} payments", payments.size());
+        
+        return Flux.fromIterable(payments)
+                .flatMapSequential(payment -> processPayment(null, payment))
+                .collectList()
+                .map(results -> new PaymentBatchResponse().results(results));
+    }
+
+    private Mono<PaymentBatchResult> process(PaymentRequest request) {
+        log.info("Processing payment: amount={}, orderId={}", request.getAmount(), request.getOrderId());
+        
+        Double amount = request.getAmount();
+        if (amount == null || amount < 0) {
+            log.warn("Rejected payment with invalid amount: {}", amount);
+            return Mono.just(result(request, HttpStatus.BAD_REQUEST, null));
+        }
+        
+        long minorAmount = BalanceLedger.toMinorUnits(amount);
+        BalanceLedger.DebitResult debit = balanceLedger.tryDebit(BalanceLedger.DEFAULT_ACCOUNT, minorAmount);
+        double newBalance = BalanceLedger.toMajorUnits(debit.balance());
+        
+        if (!debit.accepted()) {
+            log.warn("Insufficient funds: required={}, available={}", amount, newBalance);
+            return Mono.just(result(request, HttpStatus.BAD_REQUEST, null));
+        }
+        
+        // The payment is only confirmed once the debit is in the journal
+        return Mono.fromFuture(() -> paymentJournal.append(BalanceLedger.DEFAULT_ACCOUNT, -minorAmount, request.getOrderId()))
+                .map(sequence -> {
+                    PaymentResponse response = approval(sequence, newBalance);
+                    log.info("Payment processed successfully: transactionId={}, newBalance={}", response.getTransactionId(), newBalance);
+                    return result(request, HttpStatus.OK, response);
+                })
+                // A failed append is removed from the journal as well, so it is not replayed after a restart
+                .onErrorResume(e -> {
+                    log.error("Payment for order {} could not be journaled, refunding: {}", request.getOrderId(), e.getMessage());
+                    balanceLedger.credit(BalanceLedger.DEFAULT_ACCOUNT, minorAmount);
+                    return Mono.just(result(request, HttpStatus.SERVICE_UNAVAILABLE, null));
+                });
+    }
+
+    /**
+     * The transaction id is derived from the journal sequence, so an approval rebuilt from the
+     * journal after a restart carries the same id.
+     */
+    private static PaymentResponse approval(long sequence, Double newBalance) {
+        return new PaymentResponse()
+                .success(true)
+                .transactionId("txn-" + sequence)
+                .newBalance(newBalance)
+                .message("Платеж успешно обработан")
+                .timestamp(OffsetDateTime.now());
+    }
+
+    private static PaymentBatchResult result(PaymentRequest request, HttpStatus status, PaymentResponse response) {
+        return new PaymentBatchResult()
+                .orderId(request.getOrderId())
+                .status(status.value())
+                .payment(response);
+    }
+}
@@ -3,7 +3,10 @@ package io.github.danjos.payment;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "payment.journal.dir=target/test-journal/${random.uuid}",
+        "spring.rsocket.server.port=0"
+})
 class PaymentServiceTest {
 
     @Test
@@ -0,0 +1,67 @@
+package io.github.danjos.payment.benchmark;
+
+import io.github.danjos.payment.journal.FsyncPolicy;
+import io.github.danjos.payment.journal.PaymentJournal;
+import io.github.danjos.payment.ledger.BalanceLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable payments per second with 16 concurrent writers for each fsync policy; {@code BATCH}
+ * shows how much group commit recovers of the gap between {@code ALWAYS} and {@code NEVER}.
+ * Run with {@code mvn -pl payment-service -Pbenchmark verify -Dbenchmark=PaymentJournalBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class PaymentJournalBenchmark {
+
+    @Param({"ALWAYS", "BATCH", "NEVER"})
+    private FsyncPolicy fsync;
+
+    private final AtomicLong orders = new AtomicLong();
+    private Path directory;
+    private PaymentJournal journal;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("payment-journal-benchmark");
+        journal = new PaymentJournal(directory, DataSize.ofMegabytes(64), fsync, 100_000,
+                new BalanceLedger(new BigDecimal("1000.00"), 16));
+        journal.open();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        journal.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long append() throws Exception {
+        return journal.append(BalanceLedger.DEFAULT_ACCOUNT, -1, "order-" + orders.incrementAndGet()).get();
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.danjos.payment.benchmark;
+
+import io.github.danjos.payment.PaymentServiceApplication;
+import io.github.danjos.payment.controller.PaymentRSocketController;
+import io.github.danjos.payment.domain.BalanceResponse;
+import io.github.danjos.payment.domain.PaymentBatchResult;
+import io.github.danjos.payment.domain.PaymentRequest;
+import io.github.danjos.payment.domain.PaymentResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balance reads and payments against an in-process payment-service, once as JSON over HTTP
+ * (a pooled WebClient) and once as CBOR over a single multiplexed RSocket connection. Reports
+ * throughput and the latency distribution with 16 concurrent callers.
+ * Run with {@code mvn -pl payment-service -Pbenchmark verify -Dbenchmark=PaymentTransportBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class PaymentTransportBenchmark {
+
+    private final AtomicLong orders = new AtomicLong();
+    private Path journalDirectory;
+    private ConfigurableApplicationContext context;
+    private WebClient webClient;
+    private RSocketRequester requester;
+
+    @Setup
+    public void setUp() throws Exception {
+        journalDirectory = Files.createTempDirectory("payment-transport-benchmark");
+        context = new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.rsocket.server.port=0",
+                        "payment.journal.dir=" + journalDirectory,
+                        "payment.journal.fsync=never",
+                        "payment.initial.balance=1000000000.00",
+                        "logging.level.io.github.danjos.payment=WARN",
+                        "logging.level.org.springframework.web=WARN")
+                .run();
+        String httpPort = context.getEnvironment().getRequiredProperty("local.server.port");
+        int rsocketPort = context.getEnvironment().getRequiredProperty("local.rsocket.server.port", Integer.class);
+
+        webClient = WebClient.create("http://localhost:" + httpPort);
+        requester = context.getBean(RSocketRequester.Builder.class)
+                .dataMimeType(MediaType.APPLICATION_CBOR)
+                .tcp("localhost", rsocketPort);
+    }
+
+    @TearDown
+    public void tearDown() {
+        requester.dispose();
+        context.close();
+        FileSystemUtils.deleteRecursively(journalDirectory.toFile());
+    }
+
+    @Benchmark
+    public BalanceResponse httpBalance() {
+        return webClient.get()
+                .uri("/api/payment/balance")
+                .retrieve()
+                .bodyToMono(BalanceResponse.class)
+                .block();
+    }
+
+    @Benchmark
+    public BalanceResponse rsocketBalance() {
+        return requester.route(PaymentRSocketController.BALANCE_ROUTE)
+                .retrieveMono(BalanceResponse.class)
+                .block();
+    }
+
+    @Benchmark
+    public PaymentResponse httpProcess() {
+        return webClient.post()
+                .uri("/api/payment/process")
+                .bodyValue(nextPayment())
+                .retrieve()
+                .bodyToMono(PaymentResponse.class)
+                .block();
+    }
+
+    @Benchmark
+    public PaymentBatchResult rsocketProcess() {
+        return requester.route(PaymentRSocketController.PROCESS_ROUTE)
+                .data(nextPayment())
+                .retrieveMono(PaymentBatchResult.class)
+                .block();
+    }
+
+    private PaymentRequest nextPayment() {
+        return new PaymentRequest()
+                .amount(0.01)
+                .orderId("benchmark-" + orders.incrementAndGet());
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.danjos.payment.controller;
+
+import io.github.danjos.payment.domain.PaymentBatchRequest;
+import io.github.danjos.payment.domain.PaymentBatchResponse;
+import io.github.danjos.payment.domain.PaymentBatchResult;
+import io.github.danjos.payment.domain.PaymentRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "spring.rsocket.server.port=0",
+        "payment.journal.dir=target/test-journal/${random.uuid}",
+        "payment.initial.balance=1000.00",
+        "payment.batch.max-size=3"
+})
+@AutoConfigureWebTestClient
+@DisplayName("PaymentController Tests")
+class PaymentControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private WebTestClient.ResponseSpec processBatch(List<PaymentRequest> payments) {
+        return webTestClient.post()
+                .uri("/api/payment/process-batch")
+                .bodyValue(new PaymentBatchRequest().payments(payments))
+                .exchange();
+    }
+
+    @Nested
+    @DisplayName("Process Batch Tests")
+    class ProcessBatchTests {
+
+        @Test
+        @DisplayName("Should reject an empty batch")
+        void processPaymentBatch_Empty_ShouldReturn400() {
+            processBatch(List.of())
+                    .expectStatus().isBadRequest();
+        }
+
+        @Test
+        @DisplayName("Should reject a batch larger than the configured maximum")
+        void processPaymentBatch_Oversized_ShouldReturn400() {
+            processBatch(List.of(
+                    new PaymentRequest().amount(1.0).orderId("http-oversized-1"),
+                    new PaymentRequest().amount(1.0).orderId("http-oversized-2"),
+                    new PaymentRequest().amount(1.0).orderId("http-oversized-3"),
+                    new PaymentRequest().amount(1.0).orderId("http-oversized-4")))
+                    .expectStatus().isBadRequest();
+        }
+
+        @Test
+        @DisplayName("Should report a status per payment and charge only the approved ones")
+        void processPaymentBatch_WithFailingPayments_ShouldReturnResultPerPayment() {
+            // The journal refuses references over 1 KiB, so this payment fails after its debit
+            String unjournaled = "http-batch-".repeat(100);
+
+            processBatch(List.of(
+                    new PaymentRequest().amount(1.0).orderId("http-batch-1"),
+                    new PaymentRequest().amount(1_000_000.0).orderId("http-batch-2"),
+                    new PaymentRequest().amount(2.0).orderId(unjournaled)))
+                    .expectStatus().isOk()
+                    .expectBody(PaymentBatchResponse.class)
+                    .value(response -> {
+                        assertThat(response.getResults())
+                                .extracting(PaymentBatchResult::getOrderId, PaymentBatchResult::getStatus)
+                                .containsExactly(
+                                        tuple("http-batch-1", 200),
+                                        tuple("http-batch-2", 400),
+                                        // A 5xx is what intershop maps to an unknown outcome and settles later
+                                        tuple(unjournaled, 503));
+                        assertThat(response.getResults().get(0).getPayment().getSuccess()).isTrue();
+                        assertThat(response.getResults().get(1).getPayment()).isNull();
+                        assertThat(response.getResults().get(2).getPayment()).isNull();
+                    });
+
+            webTestClient.get()
+                    .uri("/api/payment/balance")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.balance").isEqualTo(999.0);
+        }
+    }
+}
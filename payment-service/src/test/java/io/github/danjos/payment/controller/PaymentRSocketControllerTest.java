@@ -0,0 +1,100 @@
+package io.github.danjos.payment.controller;
+
+import io.github.danjos.payment.domain.BalanceResponse;
+import io.github.danjos.payment.domain.PaymentBatchRequest;
+import io.github.danjos.payment.domain.PaymentBatchResponse;
+import io.github.danjos.payment.domain.PaymentBatchResult;
+import io.github.danjos.payment.domain.PaymentRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "spring.rsocket.server.port=0",
+        "payment.journal.dir=target/test-journal/${random.uuid}",
+        "payment.initial.balance=1000.00"
+})
+@DisplayName("PaymentRSocketController Tests")
+class PaymentRSocketControllerTest {
+
+    @LocalRSocketServerPort
+    private int port;
+
+    @Autowired
+    private RSocketRequester.Builder requesterBuilder;
+
+    private RSocketRequester requester;
+
+    @BeforeEach
+    void setUp() {
+        requester = requesterBuilder
+                .dataMimeType(MediaType.APPLICATION_CBOR)
+                .tcp("localhost", port);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requester.dispose();
+    }
+
+    @Test
+    @DisplayName("Should return the balance as a typed CBOR message")
+    void getBalance_ShouldReturnBalanceResponse() {
+        StepVerifier.create(requester.route(PaymentRSocketController.BALANCE_ROUTE)
+                        .retrieveMono(BalanceResponse.class))
+                .assertNext(response -> {
+                    assertThat(response.getBalance()).isNotNull();
+                    assertThat(response.getCurrency()).isEqualTo("RUB");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should process a payment once and replay it for the same order")
+    void processPayment_Repeated_ShouldReplayOriginalResult() {
+        PaymentRequest request = new PaymentRequest().amount(10.0).orderId("rsocket-order-1");
+
+        PaymentBatchResult first = requester.route(PaymentRSocketController.PROCESS_ROUTE)
+                .data(request)
+                .retrieveMono(PaymentBatchResult.class)
+                .block();
+        PaymentBatchResult replay = requester.route(PaymentRSocketController.PROCESS_ROUTE)
+                .data(request)
+                .retrieveMono(PaymentBatchResult.class)
+                .block();
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getPayment().getSuccess()).isTrue();
+        assertThat(replay.getPayment().getTransactionId()).isEqualTo(first.getPayment().getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Should report declined payments of a batch with status 400")
+    void processPaymentBatch_ShouldReturnResultPerPayment() {
+        PaymentBatchRequest request = new PaymentBatchRequest().payments(List.of(
+                new PaymentRequest().amount(1.0).orderId("rsocket-batch-1"),
+                new PaymentRequest().amount(1_000_000.0).orderId("rsocket-batch-2")));
+
+        StepVerifier.create(requester.route(PaymentRSocketController.PROCESS_BATCH_ROUTE)
+                        .data(request)
+                        .retrieveMono(PaymentBatchResponse.class))
+                .assertNext(response -> assertThat(response.getResults())
+                        .extracting(PaymentBatchResult::getOrderId, PaymentBatchResult::getStatus)
+                        .containsExactly(
+                                tuple("rsocket-batch-1", 200),
+                                tuple("rsocket-batch-2", 400)))
+                .verifyComplete();
+    }
+}
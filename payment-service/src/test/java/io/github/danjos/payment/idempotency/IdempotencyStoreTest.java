@@ -0,0 +1,133 @@
+package io.github.danjos.payment.idempotency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("IdempotencyStore Tests")
+class IdempotencyStoreTest {
+    private final AtomicInteger runs = new AtomicInteger();
+    private final Mono<Integer> operation = Mono.delay(Duration.ofMillis(50)).map(tick -> runs.incrementAndGet());
+
+    @Test
+    @DisplayName("Should run concurrent duplicates once and replay the result")
+    void execute_Duplicates_ShouldRunOnce() {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofHours(1));
+
+        StepVerifier.create(Mono.zip(
+                        store.execute("order-1", 100L, () -> operation, result -> true),
+                        store.execute("order-1", 100L, () -> operation, result -> true)))
+                .assertNext(results -> assertThat(results.toList()).containsExactly(1, 1))
+                .verifyComplete();
+        StepVerifier.create(store.execute("order-1", 100L, () -> operation, result -> true))
+                .expectNext(1)
+                .verifyComplete();
+
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should run again after a failure or a result that is not remembered")
+    void execute_FailureOrForgottenResult_ShouldRunAgain() {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofHours(1));
+
+        StepVerifier.create(store.execute("order-1", 100L, () -> Mono.<Integer>error(new IllegalStateException()), result -> true))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(store.execute("order-1", 100L, () -> operation, result -> false))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(store.execute("order-1", 100L, () -> operation, result -> true))
+                .expectNext(2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should reject a key repeated with a different request")
+    void execute_SameKeyDifferentFingerprint_ShouldFail() {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofHours(1));
+
+        StepVerifier.create(store.execute("order-1", 100L, () -> operation, result -> true))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(store.execute("order-1", 200L, () -> operation, result -> true))
+                .verifyError(IdempotencyKeyReusedException.class);
+
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should replay a remembered outcome without running the operation")
+    void remember_ThenExecute_ShouldReplay() {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofHours(1));
+        store.remember("order-1", 100L, 42);
+
+        StepVerifier.create(store.execute("order-1", 100L, () -> operation, result -> true))
+                .expectNext(42)
+                .verifyComplete();
+
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should finish the operation when the caller cancels")
+    void execute_CancelledCaller_ShouldStillRecordResult() {
+        IdempotencyStore store = new IdempotencyStore(100, Duration.ofHours(1));
+
+        StepVerifier.create(store.execute("order-1", 100L, () -> operation, result -> true))
+                .thenCancel()
+                .verify();
+        StepVerifier.create(store.execute("order-1", 100L, () -> operation, result -> true))
+                .expectNext(1)
+                .verifyComplete();
+
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used key and expire old keys")
+    void execute_BeyondBounds_ShouldEvict() {
+        MutableClock clock = new MutableClock();
+        IdempotencyStore store = new IdempotencyStore(2, Duration.ofMinutes(1), clock);
+
+        store.execute("order-1", 100L, () -> operation, result -> true).block();
+        store.execute("order-2", 100L, () -> operation, result -> true).block();
+        store.execute("order-3", 100L, () -> operation, result -> true).block();
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.execute("order-1", 100L, () -> operation, result -> true).block()).isEqualTo(4);
+
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(store.execute("order-3", 100L, () -> operation, result -> true).block()).isEqualTo(5);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-15T10:30:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
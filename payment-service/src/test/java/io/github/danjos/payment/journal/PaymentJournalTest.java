@@ -0,0 +1,184 @@
+package io.github.danjos.payment.journal;
+
+import io.github.danjos.payment.ledger.BalanceLedger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PaymentJournal Tests")
+class PaymentJournalTest {
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @TempDir
+    Path directory;
+
+    private BalanceLedger ledger;
+
+    private PaymentJournal open(FsyncPolicy policy, DataSize segmentSize, long snapshotEvery) throws Exception {
+        ledger = new BalanceLedger(INITIAL_BALANCE, 16);
+        PaymentJournal journal = new PaymentJournal(directory, segmentSize, policy, snapshotEvery, ledger);
+        journal.open();
+        return journal;
+    }
+
+    private PaymentJournal open(FsyncPolicy policy) throws Exception {
+        return open(policy, DataSize.ofMegabytes(1), 0);
+    }
+
+    @Nested
+    @DisplayName("Recovery Tests")
+    class RecoveryTests {
+
+        @Test
+        @DisplayName("Should restore balances from the journal after a restart")
+        void open_AfterRestart_ShouldRestoreBalances() throws Exception {
+            PaymentJournal journal = open(FsyncPolicy.ALWAYS);
+            journal.append("alice", -2_500, "order-1").get();
+            journal.append("bob", -100, "order-2").get();
+            journal.append("alice", 500, "refund-1").get();
+            journal.close();
+
+            PaymentJournal reopened = open(FsyncPolicy.ALWAYS);
+
+            assertThat(ledger.balance("alice")).isEqualTo(98_000L);
+            assertThat(ledger.balance("bob")).isEqualTo(99_900L);
+            assertThat(ledger.balance("carol")).isEqualTo(100_000L);
+            assertThat(reopened.takeRecoveredRecords()).extracting(JournalRecord::reference)
+                    .containsExactly("order-1", "order-2", "refund-1");
+            assertThat(reopened.append("alice", -1, "order-3").get()).isEqualTo(4L);
+            reopened.close();
+        }
+
+        @Test
+        @DisplayName("Should ignore a torn record at the end of the journal")
+        void open_WithTornTail_ShouldStopAtLastValidRecord() throws Exception {
+            PaymentJournal journal = open(FsyncPolicy.ALWAYS);
+            journal.append("alice", -100, "order-1").get();
+            journal.append("alice", -200, "order-2").get();
+            journal.close();
+
+            Path segment = files("journal-").get(0);
+            // Header (8) + first record (8 + 34) puts the second record's body at offset 58
+            try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+                file.seek(58 + 10);
+                file.writeByte(0x7F);
+            }
+
+            PaymentJournal reopened = open(FsyncPolicy.ALWAYS);
+
+            assertThat(ledger.balance("alice")).isEqualTo(99_900L);
+            assertThat(reopened.append("alice", -1, "order-3").get()).isEqualTo(2L);
+            reopened.close();
+            open(FsyncPolicy.ALWAYS).close();
+            assertThat(ledger.balance("alice")).isEqualTo(99_899L);
+        }
+
+        @Test
+        @DisplayName("Should roll segments, snapshot and replay from the snapshot")
+        void append_ManyRecords_ShouldSnapshotAndReplayFromSnapshot() throws Exception {
+            PaymentJournal journal = open(FsyncPolicy.NEVER, DataSize.ofKilobytes(4), 100);
+            for (int i = 0; i < 1_000; i++) {
+                journal.append(i % 2 == 0 ? "alice" : "bob", -1, "order-" + i).get();
+            }
+            journal.close();
+
+            // Snapshots are written in the background, so at least one but never more than two remain
+            assertThat(files("snapshot-")).hasSizeBetween(1, 2);
+
+            open(FsyncPolicy.NEVER, DataSize.ofKilobytes(4), 100).close();
+
+            assertThat(ledger.balance("alice")).isEqualTo(99_500L);
+            assertThat(ledger.balance("bob")).isEqualTo(99_500L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Group Commit Tests")
+    class GroupCommitTests {
+
+        @Test
+        @DisplayName("Should acknowledge every concurrent append exactly once with a unique sequence")
+        void append_Concurrently_ShouldCompleteAllWithUniqueSequences() throws Exception {
+            PaymentJournal journal = open(FsyncPolicy.BATCH);
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            List<Future<CompletableFuture<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                String reference = "order-" + i;
+                futures.add(executor.submit(() -> journal.append("alice", -1, reference)));
+            }
+            List<Long> sequences = new ArrayList<>();
+            for (Future<CompletableFuture<Long>> future : futures) {
+                sequences.add(future.get().get(5, TimeUnit.SECONDS));
+            }
+            executor.shutdown();
+            journal.close();
+
+            assertThat(sequences).doesNotHaveDuplicates().hasSize(2_000).allMatch(seq -> seq >= 1 && seq <= 2_000);
+
+            open(FsyncPolicy.BATCH).close();
+            assertThat(ledger.balance("alice")).isEqualTo(98_000L);
+        }
+
+        @Test
+        @DisplayName("Should reject appends after the journal is closed")
+        void append_AfterClose_ShouldFail() throws Exception {
+            PaymentJournal journal = open(FsyncPolicy.BATCH);
+            journal.close();
+
+            assertThat(journal.append("alice", -1, "order-1")).isCompletedExceptionally();
+        }
+    }
+
+    @Nested
+    @DisplayName("Rollback Tests")
+    class RollbackTests {
+
+        @Test
+        @DisplayName("Should zero the records of a failed append so they are not replayed")
+        void truncateAfter_ShouldRemoveRecordsFromFile() throws Exception {
+            JournalSegment segment = JournalSegment.create(directory, 1, 4096);
+            ByteBuffer scratch = ByteBuffer.allocate(256);
+            segment.append(new JournalRecord(1, "alice", -100, "order-1"), scratch);
+            int acknowledged = segment.position();
+            segment.append(new JournalRecord(2, "alice", -200, "order-2"), scratch);
+            segment.append(new JournalRecord(3, "alice", -300, "order-3"), scratch);
+            int written = segment.position();
+
+            List<JournalRecord> removed = segment.truncateAfter(1);
+            segment.force(segment.position(), written);
+            segment.close();
+
+            assertThat(removed).extracting(JournalRecord::reference).containsExactly("order-2", "order-3");
+            assertThat(segment.position()).isEqualTo(acknowledged);
+            assertThat(segment.lastSequence()).isEqualTo(1L);
+
+            List<JournalRecord> replayed = new ArrayList<>();
+            JournalSegment.open(files("journal-").get(0), replayed::add).close();
+            assertThat(replayed).extracting(JournalRecord::reference).containsExactly("order-1");
+        }
+    }
+
+    private List<Path> files(String prefix) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.github.danjos.payment.ledger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BalanceLedger Tests")
+class BalanceLedgerTest {
+    private static final int THREADS = 64;
+
+    @Nested
+    @DisplayName("Single Thread Tests")
+    class SingleThreadTests {
+
+        @Test
+        @DisplayName("Should open accounts with the initial balance in minor units")
+        void balance_NewAccount_ShouldStartWithInitialBalance() {
+            BalanceLedger ledger = new BalanceLedger(new BigDecimal("1000.00"), 16);
+
+            assertThat(ledger.balance("alice")).isEqualTo(100_000L);
+            assertThat(BalanceLedger.toMajorUnits(ledger.balance("alice"))).isEqualTo(1000.0);
+        }
+
+        @Test
+        @DisplayName("Should debit only when funds are sufficient")
+        void tryDebit_ShouldRejectOverdraft() {
+            BalanceLedger ledger = new BalanceLedger(new BigDecimal("10.00"), 16);
+
+            assertThat(ledger.tryDebit("alice", 600)).isEqualTo(new BalanceLedger.DebitResult(true, 400));
+            assertThat(ledger.tryDebit("alice", 500)).isEqualTo(new BalanceLedger.DebitResult(false, 400));
+            assertThat(ledger.tryDebit("alice", 400)).isEqualTo(new BalanceLedger.DebitResult(true, 0));
+            assertThat(ledger.balance("bob")).isEqualTo(1_000L);
+        }
+
+        @Test
+        @DisplayName("Should reject negative amounts")
+        void tryDebit_NegativeAmount_ShouldThrow() {
+            BalanceLedger ledger = new BalanceLedger(BigDecimal.TEN, 16);
+
+            assertThatThrownBy(() -> ledger.tryDebit("alice", -1)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> ledger.credit("alice", -1)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("Should convert amounts to minor units without floating point drift")
+        void toMinorUnits_ShouldRoundToCents() {
+            assertThat(BalanceLedger.toMinorUnits(0.1 + 0.2)).isEqualTo(30L);
+            assertThat(BalanceLedger.toMinorUnits(999.99)).isEqualTo(99_999L);
+            assertThat(BalanceLedger.toMinorUnits(new BigDecimal("1.005"))).isEqualTo(101L);
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency Stress Tests")
+    class ConcurrencyStressTests {
+
+        @Test
+        @DisplayName("Should never spend more than the balance under parallel debits")
+        void tryDebit_Parallel_ShouldNotDoubleSpend() throws Exception {
+            BalanceLedger ledger = new BalanceLedger(new BigDecimal("1000.00"), 16);
+            int attemptsPerThread = 5_000;
+            AtomicLong accepted = new AtomicLong();
+
+            runConcurrently(() -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (ledger.tryDebit(BalanceLedger.DEFAULT_ACCOUNT, 1).accepted()) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+
+            assertThat(accepted.get()).isEqualTo(100_000L);
+            assertThat(ledger.balance(BalanceLedger.DEFAULT_ACCOUNT)).isZero();
+        }
+
+        @Test
+        @DisplayName("Should not lose updates when credits and debits race across accounts")
+        void creditAndDebit_Parallel_ShouldConserveMoney() throws Exception {
+            BalanceLedger ledger = new BalanceLedger(new BigDecimal("100.00"), 4);
+            int accounts = 32;
+            int operationsPerThread = 20_000;
+            AtomicLong credited = new AtomicLong();
+            AtomicLong debited = new AtomicLong();
+
+            runConcurrently(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operationsPerThread; i++) {
+                    String account = "account-" + random.nextInt(accounts);
+                    long amount = 1 + random.nextInt(50);
+                    if (random.nextBoolean()) {
+                        ledger.credit(account, amount);
+                        credited.addAndGet(amount);
+                    } else if (ledger.tryDebit(account, amount).accepted()) {
+                        debited.addAndGet(amount);
+                    }
+                }
+            });
+
+            long total = 0;
+            for (int i = 0; i < accounts; i++) {
+                long balance = ledger.balance("account-" + i);
+                assertThat(balance).isNotNegative();
+                total += balance;
+            }
+            assertThat(total).isEqualTo(accounts * 10_000L + credited.get() - debited.get());
+        }
+
+        private void runConcurrently(Runnable task) throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        task.run();
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.danjos.payment.service;
+
+import io.github.danjos.payment.domain.PaymentBatchResult;
+import io.github.danjos.payment.domain.PaymentRequest;
+import io.github.danjos.payment.idempotency.IdempotencyStore;
+import io.github.danjos.payment.journal.FsyncPolicy;
+import io.github.danjos.payment.journal.PaymentJournal;
+import io.github.danjos.payment.ledger.BalanceLedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PaymentProcessor Tests")
+class PaymentProcessorTest {
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @TempDir
+    Path directory;
+
+    private BalanceLedger ledger;
+    private PaymentJournal journal;
+    private PaymentProcessor processor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+    }
+
+    /**
+     * Opens the journal in {@link #directory} with a fresh ledger and idempotency store, as a
+     * (re)started service would.
+     */
+    private void start() throws Exception {
+        ledger = new BalanceLedger(INITIAL_BALANCE, 16);
+        journal = new PaymentJournal(directory, DataSize.ofMegabytes(1), FsyncPolicy.ALWAYS, 0, ledger);
+        journal.open();
+        processor = new PaymentProcessor(ledger, journal, new IdempotencyStore(100, Duration.ofHours(1)), "RUB", 100);
+        processor.rememberJournaledPayments();
+    }
+
+    private PaymentBatchResult pay(String key, double amount) {
+        return processor.processPayment(key, new PaymentRequest().amount(amount).orderId("order-1")).block();
+    }
+
+    @Nested
+    @DisplayName("Idempotency Tests")
+    class IdempotencyTests {
+
+        @Test
+        @DisplayName("Should replay the first result for the same key without charging twice")
+        void processPayment_SameKey_ShouldReplayFirstResult() {
+            PaymentBatchResult first = pay("order-1", 10.0);
+            PaymentBatchResult replay = pay("order-1", 10.0);
+
+            assertThat(first.getStatus()).isEqualTo(200);
+            assertThat(replay.getStatus()).isEqualTo(200);
+            assertThat(replay.getPayment().getTransactionId()).isEqualTo(first.getPayment().getTransactionId());
+            assertThat(ledger.balance(BalanceLedger.DEFAULT_ACCOUNT)).isEqualTo(99_000L);
+        }
+
+        @Test
+        @DisplayName("Should reject a reused key with a different amount and charge nothing")
+        void processPayment_ReusedKeyWithOtherAmount_ShouldReturn422() {
+            pay("order-1", 10.0);
+
+            PaymentBatchResult reused = pay("order-1", 20.0);
+
+            assertThat(reused.getStatus()).isEqualTo(422);
+            assertThat(reused.getPayment()).isNull();
+            assertThat(ledger.balance(BalanceLedger.DEFAULT_ACCOUNT)).isEqualTo(99_000L);
+        }
+
+        @Test
+        @DisplayName("Should still replay or reject a journaled key after a restart")
+        void processPayment_AfterRestart_ShouldHonourJournaledKey() throws Exception {
+            PaymentBatchResult first = pay("order-1", 10.0);
+            journal.close();
+
+            start();
+
+            PaymentBatchResult replay = pay("order-1", 10.0);
+            PaymentBatchResult reused = pay("order-1", 20.0);
+
+            assertThat(replay.getStatus()).isEqualTo(200);
+            assertThat(replay.getPayment().getTransactionId()).isEqualTo(first.getPayment().getTransactionId());
+            assertThat(reused.getStatus()).isEqualTo(422);
+            assertThat(ledger.balance(BalanceLedger.DEFAULT_ACCOUNT)).isEqualTo(99_000L);
+        }
+    }
+}